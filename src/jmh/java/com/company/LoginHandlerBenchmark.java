@@ -0,0 +1,98 @@
+package com.company;
+
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.Links;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.CharBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link LoginHandler#performLogin()} flow against an in-process adapter which answers immediately, so only
+ * the flow's own overhead is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LoginHandlerBenchmark {
+
+    private LoginStatusPoller statusPoller;
+    private LoginHandler loginHandler;
+
+    @Setup
+    public void setUp() {
+        var loginAdapter = new StubLoginAdapter();
+        statusPoller = new LoginStatusPoller(loginAdapter, PollingPolicy.builder().interval(Duration.ZERO).build());
+        var scanner = new Scanner(new EmptyLines());
+        loginHandler = new LoginHandler(scanner, new BlockingLoginAdapter(loginAdapter), statusPoller, new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        statusPoller.close();
+    }
+
+    @Benchmark
+    public void performLogin() throws Exception {
+        loginHandler.performLogin();
+    }
+
+    private static class StubLoginAdapter implements AsyncLoginAdapter {
+
+        private static final Link NEXT = new Link("GET", "/v5/identification/bankid/mobile/verify");
+        private final CompletableFuture<AuthenticationMethodCatalog> methods = CompletableFuture.completedFuture(AuthenticationMethodCatalog.of(List.of(
+                AuthenticationMethod.builder().message("Mobile BankID").code(AuthenticationCode.BANKID_MOBILE).location(new Link("POST", "/v5/identification/bankid/mobile")).build(),
+                AuthenticationMethod.builder().message("Security token").code(AuthenticationCode.SECURITY_TOKEN).location(new Link("POST", "/v5/identification/securitytoken")).build())));
+        private final CompletableFuture<LoginInitiationResponse> initiatedLogin = CompletableFuture.completedFuture(
+                new LoginInitiationResponse(LoginStatus.CLIENT_NOT_STARTED, new Links(NEXT)));
+        private final CompletableFuture<LoginStatus> status = CompletableFuture.completedFuture(LoginStatus.COMPLETE);
+
+        @Override
+        public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+            return methods;
+        }
+
+        @Override
+        public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+            return initiatedLogin;
+        }
+
+        @Override
+        public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+            return status;
+        }
+    }
+
+    /**
+     * Endless input of empty lines, so every login falls back to the default user id.
+     */
+    private static class EmptyLines implements Readable {
+
+        @Override
+        public int read(CharBuffer buffer) {
+            var length = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                buffer.put('\n');
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.company;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+record StubHttpResponse(int statusCode, byte[] body, HttpHeaders headers) implements HttpResponse<byte[]> {
+
+    static StubHttpResponse of(int statusCode, String body, Map<String, List<String>> headers) {
+        return new StubHttpResponse(statusCode, body.getBytes(StandardCharsets.UTF_8), HttpHeaders.of(headers, (name, value) -> true));
+    }
+
+    @Override
+    public HttpRequest request() {
+        return null;
+    }
+
+    @Override
+    public Optional<HttpResponse<byte[]>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+        return null;
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_1_1;
+    }
+}
@@ -0,0 +1,98 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.AuthenticationMethodsResponse;
+import com.company.beans.dto.JsonCodecs;
+import com.company.beans.dto.LoginInitiationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SwedbankLoginAdapterBenchmark {
+
+    private static final String METHODS_BODY = """
+            {"authenticationMethods":[
+              {"message":"Security token for corporate customers","code":"SECURITY_TOKEN_CORP","location":{"method":"POST","uri":"/v5/identification/securitytoken/corporate"},"order":1},
+              {"message":"BankID on card","code":"BANKID_CARD","location":{"method":"POST","uri":"/v5/identification/bankid/card"},"order":2},
+              {"message":"Security token","code":"SECURITY_TOKEN","location":{"method":"POST","uri":"/v5/identification/securitytoken"},"order":3},
+              {"message":"Mobile BankID","code":"BANKID_MOBILE","location":{"method":"POST","uri":"/v5/identification/bankid/mobile"},"order":4}
+            ],"links":{"self":{"method":"GET","uri":"/v5/identification/"}}}""";
+    private static final String STATUS_BODY = """
+            {"status":"OUTSTANDING_TRANSACTION","autoStartToken":"8a5d3c1e-7b2f-4f0e-9a61-2f3c4d5e6f70","links":{"next":{"method":"GET","uri":"/v5/identification/bankid/mobile/verify"}}}""";
+    private static final String ERROR_BODY = """
+            {"errorMessages":{"general":[],"fields":[{"field":"userId","message":"Personal identity number is not valid"}]}}""";
+    private static final Map<String, List<String>> COOKIE_HEADERS = Map.of(
+            "content-type", List.of("application/json"),
+            "set-cookie", List.of("dsessionid=abc123; Path=/; Secure", "JSESSIONID=0000vQ3hX8m2bZkT1YqFz7L9aNc:1a2b3c4d; Path=/; Secure; HttpOnly"));
+    private static final Link STATUS_LINK = new Link("GET", "/v5/identification/bankid/mobile/verify");
+
+    private StubHttpResponse methodsResponse;
+    private StubHttpResponse statusResponse;
+    private StubHttpResponse errorResponse;
+    private StubHttpResponse cookieResponse;
+    private RequestTemplates requestTemplates;
+    private LoginSession session;
+
+    @Setup
+    public void setUp() {
+        methodsResponse = StubHttpResponse.of(200, METHODS_BODY, Map.of());
+        statusResponse = StubHttpResponse.of(200, STATUS_BODY, Map.of());
+        errorResponse = StubHttpResponse.of(400, ERROR_BODY, Map.of());
+        cookieResponse = StubHttpResponse.of(200, STATUS_BODY, COOKIE_HEADERS);
+        requestTemplates = new RequestTemplates("https://online.swedbank.se/TDE_DAP_Portal_REST_WEB/api",
+                Map.of("Authorization", "QjdkWkhRY1k3OFZSVno5bDoxNTkyMjI3MzYxNzA2", "X-Client", "loginititatorapp", "Content-Type", "application/json"), 1_000);
+        session = new LoginSession();
+        session.updateCookie("JSESSIONID=0000vQ3hX8m2bZkT1YqFz7L9aNc:1a2b3c4d");
+    }
+
+    @Benchmark
+    public AuthenticationMethodCatalog parseMethodsResponse() {
+        AuthenticationMethodsResponse response = SwedbankLoginAdapter.parseResponse(methodsResponse, JsonCodecs.AUTHENTICATION_METHODS_RESPONSE);
+        return AuthenticationMethodCatalog.of(response.getAuthenticationMethods());
+    }
+
+    @Benchmark
+    public LoginStatus parseStatusResponse() {
+        LoginInitiationResponse response = SwedbankLoginAdapter.parseResponse(statusResponse, JsonCodecs.LOGIN_INITIATION_RESPONSE);
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public String parseErrorResponse() {
+        try {
+            SwedbankLoginAdapter.parseResponse(errorResponse, JsonCodecs.LOGIN_INITIATION_RESPONSE);
+            throw new AssertionError("error response was parsed as success");
+        } catch (IllegalStateException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public Optional<String> updateSessionCookie() {
+        var loginSession = new LoginSession();
+        SwedbankLoginAdapter.updateSessionCookie(loginSession, cookieResponse);
+        return loginSession.getCookie();
+    }
+
+    @Benchmark
+    public HttpRequest buildStatusRequest() throws Exception {
+        var request = requestTemplates.get(STATUS_LINK).newRequest(Optional.empty());
+        session.getCookie().ifPresent(cookie -> request.header("Cookie", cookie));
+        return request.build();
+    }
+}
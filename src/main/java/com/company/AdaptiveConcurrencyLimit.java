@@ -0,0 +1,61 @@
+package com.company;
+
+/**
+ * Concurrency limit that follows the capacity of the bank, in the style of TCP Vegas: the queue building up at the
+ * bank is estimated as {@code limit * (1 - minRtt / rtt)}. The limit grows while that queue is short, shrinks while it
+ * is long and is cut multiplicatively on every failed request.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int ALPHA = 3;
+    private static final int BETA = 6;
+    private static final double BACKOFF_RATIO = 0.9;
+    // the lowest RTT is re-measured now and then, so a permanent latency increase doesn't pin the limit down
+    private static final int MIN_RTT_PROBE_INTERVAL = 1_000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private volatile int limit;
+    private double estimatedLimit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samplesSinceProbe;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalStateException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param rttNanos duration of a finished request
+     * @param inFlight requests in flight when it was sent, the limit only grows when it is actually used
+     * @param dropped  whether the request failed because the bank failed or was overloaded
+     */
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+        } else {
+            if (++samplesSinceProbe >= MIN_RTT_PROBE_INTERVAL) {
+                samplesSinceProbe = 0;
+                minRttNanos = rttNanos;
+            }
+            minRttNanos = Math.max(1, Math.min(minRttNanos, rttNanos));
+
+            var queueSize = estimatedLimit * (1 - (double) minRttNanos / Math.max(1, rttNanos));
+            if (queueSize < ALPHA && inFlight * 2 >= estimatedLimit) {
+                estimatedLimit = Math.min(maxLimit, estimatedLimit + 1);
+            } else if (queueSize > BETA) {
+                estimatedLimit = Math.max(minLimit, estimatedLimit - 1);
+            }
+        }
+        limit = (int) estimatedLimit;
+    }
+}
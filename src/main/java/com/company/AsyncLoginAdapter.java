@@ -0,0 +1,19 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface AsyncLoginAdapter {
+
+    CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync();
+
+    CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method);
+
+    CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link);
+
+}
@@ -0,0 +1,31 @@
+package com.company;
+
+import java.io.Serial;
+
+/**
+ * Error response of the bank API. It is an {@link IllegalStateException} like every other login failure, the status
+ * code tells whether the bank itself is failing or the request is invalid.
+ */
+public class BankApiException extends IllegalStateException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+
+    public BankApiException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return whether the bank failed to handle a request it may handle when retried
+     */
+    public boolean isServerError() {
+        return statusCode >= 500;
+    }
+}
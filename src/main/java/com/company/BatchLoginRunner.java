@@ -0,0 +1,64 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.LoginStatus;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs logins for a list of users, each on its own virtual thread. At most {@code maxConcurrentLogins} logins are
+ * in flight at the same time.
+ */
+@AllArgsConstructor
+public class BatchLoginRunner {
+
+    private final LoginAdapter loginAdapter;
+    private final LoginStatusPoller statusPoller;
+    private final int maxConcurrentLogins;
+
+    public BatchLoginSummary run(List<String> userIds) throws Exception {
+        var loginMethod = getLoginMethod();
+        var summary = new BatchLoginSummary();
+        var permits = new Semaphore(maxConcurrentLogins);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var userId : userIds) {
+                permits.acquire();
+                executor.submit(() -> {
+                    try {
+                        summary.record(performLogin(userId, loginMethod));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        return summary;
+    }
+
+    private AuthenticationMethod getLoginMethod() throws Exception {
+        return loginAdapter.getAllLoginMethods().get(LoginHandler.SELECTED_AUTH_METHOD);
+    }
+
+    private String performLogin(String userId, AuthenticationMethod loginMethod) {
+        try {
+            var session = new LoginSession();
+            var initiatedLogin = loginAdapter.initiateLogin(session, userId, loginMethod);
+            if (!LoginStatus.CLIENT_NOT_STARTED.equals(initiatedLogin.getStatus())) {
+                return initiatedLogin.getStatus().toString();
+            }
+
+            return Futures.await(statusPoller.poll(session, initiatedLogin.getLinks().getNext(), status -> {
+            })).toString();
+        } catch (TimeoutException e) {
+            return BatchLoginSummary.TIMED_OUT;
+        } catch (Exception e) {
+            return BatchLoginSummary.FAILED;
+        }
+    }
+}
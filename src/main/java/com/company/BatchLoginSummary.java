@@ -0,0 +1,33 @@
+package com.company;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe count of batch login outcomes. Outcomes are either final {@link com.company.beans.LoginStatus} names or
+ * one of {@link #TIMED_OUT} and {@link #FAILED}.
+ */
+public class BatchLoginSummary {
+
+    public static final String TIMED_OUT = "TIMED_OUT";
+    public static final String FAILED = "FAILED";
+
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    void record(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    public Map<String, Long> getCounts() {
+        var counts = new TreeMap<String, Long>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    public void print(PrintStream printStream) {
+        getCounts().forEach((outcome, count) -> printStream.println("%s: %d".formatted(outcome, count)));
+    }
+}
@@ -0,0 +1,30 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import lombok.AllArgsConstructor;
+
+
+@AllArgsConstructor
+public class BlockingLoginAdapter implements LoginAdapter {
+
+    private final AsyncLoginAdapter asyncLoginAdapter;
+
+    @Override
+    public AuthenticationMethodCatalog getAllLoginMethods() throws Exception {
+        return Futures.await(asyncLoginAdapter.getAllLoginMethodsAsync());
+    }
+
+    @Override
+    public LoginInitiationResponse initiateLogin(LoginSession session, String userId, AuthenticationMethod method) throws Exception {
+        return Futures.await(asyncLoginAdapter.initiateLoginAsync(session, userId, method));
+    }
+
+    @Override
+    public LoginStatus getLoginStatus(LoginSession session, Link link) throws Exception {
+        return Futures.await(asyncLoginAdapter.getLoginStatusAsync(session, link));
+    }
+}
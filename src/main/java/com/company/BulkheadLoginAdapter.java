@@ -0,0 +1,283 @@
+package com.company;
+
+import com.company.beans.AdapterOperation;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import com.company.metrics.BulkheadMetricsMXBean;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Isolates operations from each other: each operation gets its own bulkhead with a concurrency limit and a bounded
+ * queue, so a flood of status polls can only use its own share of the {@code maxConcurrent} requests sent to the
+ * underlying adapter. When capacity frees up, queued requests are started in {@link #PRIORITY} order, login initiation
+ * first. A request finding its bulkhead queue full, or waiting in it longer than {@code maxQueueWait}, fails with
+ * {@link IllegalStateException}. Cancelling a returned future takes the request out of its queue, or cancels the request
+ * sent to the underlying adapter.
+ */
+public class BulkheadLoginAdapter implements AsyncLoginAdapter {
+
+    static final List<AdapterOperation> PRIORITY = List.of(AdapterOperation.INITIATE, AdapterOperation.IDENTIFICATION, AdapterOperation.STATUS);
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final int maxConcurrent;
+    private final long maxQueueWaitNanos;
+    private final Map<AdapterOperation, Bulkhead> bulkheads = new EnumMap<>(AdapterOperation.class);
+    private int active;
+    // number of dispatch() calls not yet served, only the call that raises it from 0 runs the dispatch loop
+    private final AtomicInteger pendingDispatches = new AtomicInteger();
+
+    /**
+     * @param limits        limits of every operation, operations without limits share only {@code maxConcurrent}
+     * @param maxConcurrent requests in flight over all operations
+     */
+    public BulkheadLoginAdapter(AsyncLoginAdapter loginAdapter, Map<AdapterOperation, Limits> limits, int maxConcurrent, Duration maxQueueWait) {
+        this.loginAdapter = loginAdapter;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        for (var operation : AdapterOperation.values()) {
+            bulkheads.put(operation, new Bulkhead(limits.getOrDefault(operation, new Limits(maxConcurrent, Integer.MAX_VALUE))));
+        }
+    }
+
+    @Override
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        return submit(AdapterOperation.IDENTIFICATION, loginAdapter::getAllLoginMethodsAsync);
+    }
+
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        return submit(AdapterOperation.INITIATE, () -> loginAdapter.initiateLoginAsync(session, userId, method));
+    }
+
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        return submit(AdapterOperation.STATUS, () -> loginAdapter.getLoginStatusAsync(session, link));
+    }
+
+    public BulkheadMetricsMXBean bulkhead(AdapterOperation operation) {
+        return bulkheads.get(operation);
+    }
+
+    /**
+     * Publishes metrics of every bulkhead, replacing any earlier registration under the same names.
+     */
+    public void register(MBeanServer mBeanServer) throws JMException {
+        for (var bulkhead : bulkheads.entrySet()) {
+            var name = new ObjectName("com.company:type=Bulkhead,operation=" + bulkhead.getKey().name().toLowerCase(Locale.ROOT));
+            if (mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+            mBeanServer.registerMBean(bulkhead.getValue(), name);
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(AdapterOperation operation, Supplier<CompletableFuture<T>> request) {
+        var queuedRequest = new QueuedRequest<>(operation, request);
+        var bulkhead = bulkheads.get(operation);
+        synchronized (this) {
+            var canStart = active < maxConcurrent && bulkhead.active < bulkhead.limits.maxConcurrent() && bulkhead.queued == 0;
+            if (!canStart && bulkhead.queued >= bulkhead.limits.maxQueued()) {
+                bulkhead.rejected.increment();
+                return CompletableFuture.failedFuture(full(operation));
+            }
+            bulkhead.queue.add(queuedRequest);
+            bulkhead.queued++;
+        }
+
+        dispatch();
+        if (!queuedRequest.result.isDone()) {
+            CompletableFuture.delayedExecutor(maxQueueWaitNanos, TimeUnit.NANOSECONDS).execute(() -> expire(operation, queuedRequest));
+        }
+        return queuedRequest.result;
+    }
+
+    private void expire(AdapterOperation operation, QueuedRequest<?> queuedRequest) {
+        if (dequeue(operation, queuedRequest)) {
+            queuedRequest.result.completeExceptionally(full(operation));
+        }
+    }
+
+    /**
+     * Takes a request out of its queue. It is left in the queue, which is cheaper than searching it, and skipped when
+     * its turn comes.
+     *
+     * @return whether the request was still queued, it is not started afterwards
+     */
+    private synchronized boolean dequeue(AdapterOperation operation, QueuedRequest<?> queuedRequest) {
+        if (queuedRequest.claimed) {
+            return false;
+        }
+        queuedRequest.claimed = true;
+        bulkheads.get(operation).queued--;
+        return true;
+    }
+
+    private static IllegalStateException full(AdapterOperation operation) {
+        return new IllegalStateException("%s bulkhead is full".formatted(operation));
+    }
+
+    /**
+     * Starts queued requests the limits allow. Requests are only picked under the lock, they are started outside of
+     * it. A request that completes right away calls this again from within the loop; that call only bumps
+     * {@code pendingDispatches} and the running loop goes around once more, so the stack doesn't grow with the queue.
+     */
+    private void dispatch() {
+        if (pendingDispatches.getAndIncrement() != 0) {
+            return;
+        }
+        var missed = 1;
+        do {
+            var toStart = new ArrayList<Runnable>();
+            synchronized (this) {
+                for (var operation : PRIORITY) {
+                    var bulkhead = bulkheads.get(operation);
+                    while (active < maxConcurrent && bulkhead.active < bulkhead.limits.maxConcurrent() && bulkhead.queued > 0) {
+                        active++;
+                        bulkhead.active++;
+                        var queuedRequest = bulkhead.pollQueued();
+                        toStart.add(() -> queuedRequest.start(bulkhead));
+                    }
+                }
+            }
+            toStart.forEach(Runnable::run);
+            missed = pendingDispatches.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void release(Bulkhead bulkhead) {
+        synchronized (this) {
+            active--;
+            bulkhead.active--;
+        }
+        bulkhead.completed.increment();
+        dispatch();
+    }
+
+    /**
+     * @param maxConcurrent requests of the operation in flight
+     * @param maxQueued     requests of the operation waiting for capacity
+     */
+    public record Limits(int maxConcurrent, int maxQueued) {
+    }
+
+    private class Bulkhead implements BulkheadMetricsMXBean {
+        private final Limits limits;
+        private final Queue<QueuedRequest<?>> queue = new ArrayDeque<>();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private int active;
+        // requests in the queue that did not expire
+        private int queued;
+
+        private Bulkhead(Limits limits) {
+            this.limits = limits;
+        }
+
+        /**
+         * @return the oldest request that did not expire, there is one as long as {@code queued} is positive
+         */
+        private QueuedRequest<?> pollQueued() {
+            var queuedRequest = queue.poll();
+            while (queuedRequest.claimed) {
+                queuedRequest = queue.poll();
+            }
+            queuedRequest.claimed = true;
+            queued--;
+            return queuedRequest;
+        }
+
+        @Override
+        public int getMaxConcurrent() {
+            return limits.maxConcurrent();
+        }
+
+        @Override
+        public int getActive() {
+            synchronized (BulkheadLoginAdapter.this) {
+                return active;
+            }
+        }
+
+        @Override
+        public int getQueued() {
+            synchronized (BulkheadLoginAdapter.this) {
+                return queued;
+            }
+        }
+
+        @Override
+        public long getCompleted() {
+            return completed.sum();
+        }
+
+        @Override
+        public long getRejected() {
+            return rejected.sum();
+        }
+    }
+
+    private class QueuedRequest<T> {
+        private final Supplier<CompletableFuture<T>> request;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        // set under the lock once the request is either started, expired or cancelled
+        private boolean claimed;
+        private volatile CompletableFuture<T> response;
+
+        private QueuedRequest(AdapterOperation operation, Supplier<CompletableFuture<T>> request) {
+            this.request = request;
+            // a cancelled caller gives up its place in the queue, or aborts the request once it is started
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled() && !dequeue(operation, this)) {
+                    cancelResponse();
+                }
+            });
+        }
+
+        private void start(Bulkhead bulkhead) {
+            try {
+                response = request.get();
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            // the caller may have cancelled while the request was being started
+            if (result.isCancelled()) {
+                cancelResponse();
+            }
+
+            response.whenComplete((value, error) -> {
+                release(bulkhead);
+                if (error != null) {
+                    result.completeExceptionally(Futures.cause(error));
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+
+        private void cancelResponse() {
+            var started = response;
+            if (started != null) {
+                started.cancel(true);
+            }
+        }
+    }
+}
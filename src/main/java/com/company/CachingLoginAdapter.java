@@ -0,0 +1,99 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the authentication methods catalog of the underlying adapter.
+ * <ul>
+ *     <li>Within {@code ttl - refreshAhead} the cached catalog is returned without any request.</li>
+ *     <li>Within the last {@code refreshAhead} of {@code ttl} the cached catalog is returned and refreshed in background.</li>
+ *     <li>For {@code staleIfError} after {@code ttl} the stale catalog is returned right away and refreshed in
+ *     background, so a slow or failing bank doesn't hold up logins.</li>
+ *     <li>After that callers wait for a refresh and get its failure, if any.</li>
+ * </ul>
+ * Concurrent refreshes are collapsed into one request. Login initiation and status calls are passed through.
+ */
+public class CachingLoginAdapter implements AsyncLoginAdapter {
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final Duration ttl;
+    private final Duration refreshAhead;
+    private final Duration staleIfError;
+    private final Clock clock;
+    private final AtomicReference<CachedLoginMethods> cachedMethods = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<AuthenticationMethodCatalog>> refreshInProgress = new AtomicReference<>();
+
+    public CachingLoginAdapter(AsyncLoginAdapter loginAdapter, Duration ttl, Duration refreshAhead, Duration staleIfError) {
+        this(loginAdapter, ttl, refreshAhead, staleIfError, Clock.systemUTC());
+    }
+
+    CachingLoginAdapter(AsyncLoginAdapter loginAdapter, Duration ttl, Duration refreshAhead, Duration staleIfError, Clock clock) {
+        this.loginAdapter = loginAdapter;
+        this.ttl = ttl;
+        this.refreshAhead = refreshAhead;
+        this.staleIfError = staleIfError;
+        this.clock = clock;
+    }
+
+    @Override
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        var cached = cachedMethods.get();
+        if (cached == null) {
+            return refresh();
+        }
+
+        var age = Duration.between(cached.fetchedAt(), clock.instant());
+        if (age.compareTo(ttl.plus(staleIfError)) >= 0) {
+            return refresh();
+        }
+        if (age.compareTo(ttl.minus(refreshAhead)) >= 0) {
+            refresh();
+        }
+        return CompletableFuture.completedFuture(cached.methods());
+    }
+
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        return loginAdapter.initiateLoginAsync(session, userId, method);
+    }
+
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        return loginAdapter.getLoginStatusAsync(session, link);
+    }
+
+    private CompletableFuture<AuthenticationMethodCatalog> refresh() {
+        var refresh = new CompletableFuture<AuthenticationMethodCatalog>();
+        var inProgress = refreshInProgress.compareAndExchange(null, refresh);
+        if (inProgress != null) {
+            return inProgress;
+        }
+
+        loginAdapter.getAllLoginMethodsAsync().whenComplete((methods, error) -> {
+            if (error == null) {
+                cachedMethods.set(new CachedLoginMethods(methods, clock.instant()));
+            }
+            refreshInProgress.set(null);
+
+            if (error == null) {
+                refresh.complete(methods);
+            } else {
+                refresh.completeExceptionally(Futures.cause(error));
+            }
+        });
+        return refresh;
+    }
+
+    private record CachedLoginMethods(AuthenticationMethodCatalog methods, Instant fetchedAt) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.company;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a failing upstream. Outcomes of the latest {@code windowSize} calls are kept; once at least
+ * {@code minimumCalls} of them are known and their failure rate reaches {@code failureRateThreshold}, the breaker
+ * opens and rejects calls for {@code openDuration}. After that it lets {@code halfOpenCalls} trial calls through:
+ * if they all succeed it closes again, a single failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN,
+
+    }
+
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int recordedCalls;
+    private int failedCalls;
+    private int nextSlot;
+    private long openedAt;
+    private int halfOpenPermitsLeft;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration, int halfOpenCalls, LongSupplier nanoClock) {
+        if (minimumCalls < 1 || windowSize < minimumCalls || halfOpenCalls < 1) {
+            throw new IllegalStateException("Circuit breaker window must hold at least minimum calls and both must be positive");
+        }
+        this.failures = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && nanoClock.getAsLong() - openedAt >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            halfOpenPermitsLeft = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        return state;
+    }
+
+    /**
+     * @return whether a call may be made now, every permitted call must be followed by {@link #onSuccess()},
+     * {@link #onFailure()} or {@link #onIgnored()}
+     */
+    public synchronized boolean tryAcquirePermission() {
+        return switch (getState()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> halfOpenPermitsLeft-- > 0;
+        };
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recordedCalls >= minimumCalls && (double) failedCalls / recordedCalls >= failureRateThreshold) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * Returns the permission of a call whose outcome says nothing about the upstream, e.g. one rejected as invalid.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermitsLeft++;
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recordedCalls == failures.length) {
+            failedCalls -= failures[nextSlot] ? 1 : 0;
+        } else {
+            recordedCalls++;
+        }
+        failures[nextSlot] = failed;
+        failedCalls += failed ? 1 : 0;
+        nextSlot = (nextSlot + 1) % failures.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        recordedCalls = 0;
+        failedCalls = 0;
+        nextSlot = 0;
+    }
+}
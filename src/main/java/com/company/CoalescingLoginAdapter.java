@@ -0,0 +1,89 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares one status request among all callers asking for the status of the same login at the same time. A login is
+ * told apart by its session cookie, as the bank does, so callers joined to one login with separate
+ * {@link LoginSession}s share requests too. A status received less than {@code freshness} ago is returned without a
+ * request. Failures are not shared with later callers. Fetching login methods and login initiation are passed through.
+ */
+public class CoalescingLoginAdapter implements AsyncLoginAdapter {
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final long freshnessNanos;
+    private final Map<StatusKey, CoalescedStatus> statuses = new ConcurrentHashMap<>();
+
+    public CoalescingLoginAdapter(AsyncLoginAdapter loginAdapter, Duration freshness) {
+        this.loginAdapter = loginAdapter;
+        this.freshnessNanos = freshness.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        return loginAdapter.getAllLoginMethodsAsync();
+    }
+
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        return loginAdapter.initiateLoginAsync(session, userId, method);
+    }
+
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        var key = StatusKey.of(session, link);
+        while (true) {
+            var existing = statuses.get(key);
+            if (existing != null && existing.isFresh()) {
+                // a copy, so that a caller cancelling its future doesn't cancel it for everyone else
+                return existing.result.copy();
+            }
+
+            var coalesced = new CoalescedStatus();
+            var claimed = existing == null ? statuses.putIfAbsent(key, coalesced) == null : statuses.replace(key, existing, coalesced);
+            if (claimed) {
+                request(key, coalesced, session);
+                return coalesced.result.copy();
+            }
+        }
+    }
+
+    private void request(StatusKey key, CoalescedStatus coalesced, LoginSession session) {
+        loginAdapter.getLoginStatusAsync(session, key.link()).whenComplete((status, error) -> {
+            if (error != null) {
+                statuses.remove(key, coalesced);
+                coalesced.result.completeExceptionally(Futures.cause(error));
+                return;
+            }
+
+            coalesced.receivedAt = System.nanoTime();
+            coalesced.received = true;
+            if (freshnessNanos > 0) {
+                CompletableFuture.delayedExecutor(freshnessNanos, TimeUnit.NANOSECONDS).execute(() -> statuses.remove(key, coalesced));
+            } else {
+                statuses.remove(key, coalesced);
+            }
+            coalesced.result.complete(status);
+        });
+    }
+
+    private class CoalescedStatus {
+        private final CompletableFuture<LoginStatus> result = new CompletableFuture<>();
+        private volatile long receivedAt;
+        private volatile boolean received;
+
+        private boolean isFresh() {
+            return !received || System.nanoTime() - receivedAt <= freshnessNanos;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.company;
+
+import com.company.beans.AdapterOperation;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounds requests in flight to the underlying adapter by an {@link AdaptiveConcurrencyLimit} fed with the duration
+ * and outcome of every request. Requests over the limit wait in a bounded queue; they fail with
+ * {@link IllegalStateException} when the queue is full or when they wait longer than {@code maxQueueWait}, so
+ * latency stays bounded while the bank is overloaded or stalled. Every operation waits in its own queue and free slots
+ * go to queued requests in {@link BulkheadLoginAdapter#PRIORITY} order, so a login initiation is not stuck behind
+ * hundreds of status polls. Cancelling a returned future removes the request from its queue, or cancels the request
+ * sent to the underlying adapter.
+ */
+public class ConcurrencyLimitingLoginAdapter implements AsyncLoginAdapter {
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final AdaptiveConcurrencyLimit limit;
+    private final int maxQueueSize;
+    private final long maxQueueWaitNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<AdapterOperation, Queue<QueuedRequest<?>>> queues = new EnumMap<>(AdapterOperation.class);
+    // number of drain() calls not yet served, only the call that raises it from 0 runs the drain loop
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+
+    /**
+     * @param maxQueueSize requests allowed to wait for a free slot, {@code 0} rejects right away
+     */
+    public ConcurrencyLimitingLoginAdapter(AsyncLoginAdapter loginAdapter, AdaptiveConcurrencyLimit limit, int maxQueueSize, Duration maxQueueWait) {
+        this.loginAdapter = loginAdapter;
+        this.limit = limit;
+        this.maxQueueSize = maxQueueSize;
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+        for (var operation : AdapterOperation.values()) {
+            queues.put(operation, new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    @Override
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        return limit(AdapterOperation.IDENTIFICATION, loginAdapter::getAllLoginMethodsAsync);
+    }
+
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        return limit(AdapterOperation.INITIATE, () -> loginAdapter.initiateLoginAsync(session, userId, method));
+    }
+
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        return limit(AdapterOperation.STATUS, () -> loginAdapter.getLoginStatusAsync(session, link));
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private <T> CompletableFuture<T> limit(AdapterOperation operation, Supplier<CompletableFuture<T>> request) {
+        if (isQueueEmpty() && tryAcquire()) {
+            return execute(request);
+        }
+
+        if (queued.incrementAndGet() > maxQueueSize) {
+            queued.decrementAndGet();
+            return CompletableFuture.failedFuture(limitReached());
+        }
+        var queuedRequest = new QueuedRequest<>(operation, request);
+        queues.get(operation).add(queuedRequest);
+        CompletableFuture.delayedExecutor(maxQueueWaitNanos, TimeUnit.NANOSECONDS).execute(() -> expire(queuedRequest));
+        // a slot may have been released before the request was queued
+        drain();
+        return queuedRequest.result;
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            var current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> request) {
+        var concurrency = inFlight.get();
+        var start = System.nanoTime();
+        CompletableFuture<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+
+        var completed = response.whenComplete((result, error) -> {
+            var cause = error == null ? null : Futures.cause(error);
+            // a cancelled request says nothing about how long the bank takes to answer
+            if (!(cause instanceof CancellationException)) {
+                // only the bank failing or being overloaded is a drop, a rejected request is answered as quickly as any
+                limit.onSample(System.nanoTime() - start, concurrency, cause != null && ResilientLoginAdapter.isBankFailure(cause));
+            }
+            inFlight.decrementAndGet();
+            drain();
+        });
+        // a copy to be cancelled, a cancelled stage would skip releasing the slot
+        return Futures.propagateCancellation(response, completed.copy());
+    }
+
+    /**
+     * Starts queued requests while slots are free. A request that completes right away calls this again from within
+     * the loop; that call only bumps {@code pendingDrains} and the running loop goes around once more, so the stack
+     * doesn't grow with the queue.
+     */
+    private void drain() {
+        if (pendingDrains.getAndIncrement() != 0) {
+            return;
+        }
+        var missed = 1;
+        do {
+            while (!isQueueEmpty() && tryAcquire()) {
+                var queuedRequest = pollByPriority();
+                if (queuedRequest == null || !queuedRequest.claim()) {
+                    // empty or expired meanwhile, the slot is not needed
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                queued.decrementAndGet();
+                queuedRequest.run();
+            }
+            missed = pendingDrains.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private boolean isQueueEmpty() {
+        for (var queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private QueuedRequest<?> pollByPriority() {
+        for (var operation : BulkheadLoginAdapter.PRIORITY) {
+            var queuedRequest = queues.get(operation).poll();
+            if (queuedRequest != null) {
+                return queuedRequest;
+            }
+        }
+        return null;
+    }
+
+    private void expire(QueuedRequest<?> queuedRequest) {
+        if (dequeue(queuedRequest)) {
+            queuedRequest.result.completeExceptionally(limitReached());
+        }
+    }
+
+    /**
+     * @return whether the request was still queued, it is not started afterwards
+     */
+    private boolean dequeue(QueuedRequest<?> queuedRequest) {
+        if (!queuedRequest.claim()) {
+            return false;
+        }
+        queues.get(queuedRequest.operation).remove(queuedRequest);
+        queued.decrementAndGet();
+        return true;
+    }
+
+    private IllegalStateException limitReached() {
+        return new IllegalStateException("Concurrency limit of %d requests reached".formatted(limit.getLimit()));
+    }
+
+    private class QueuedRequest<T> {
+        private final AdapterOperation operation;
+        private final Supplier<CompletableFuture<T>> request;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile CompletableFuture<T> response;
+
+        private QueuedRequest(AdapterOperation operation, Supplier<CompletableFuture<T>> request) {
+            this.operation = operation;
+            this.request = request;
+            // a cancelled caller gives up its place in the queue, or aborts the request once it is started
+            result.whenComplete((value, error) -> {
+                if (result.isCancelled() && !dequeue(this)) {
+                    cancelResponse();
+                }
+            });
+        }
+
+        /**
+         * @return whether the caller is the one to either start or expire this request
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        private void run() {
+            response = execute(request);
+            // the caller may have cancelled while the request was being started
+            if (result.isCancelled()) {
+                cancelResponse();
+            }
+            response.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(Futures.cause(error));
+                } else {
+                    result.complete(value);
+                }
+            });
+        }
+
+        private void cancelResponse() {
+            var started = response;
+            if (started != null) {
+                started.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.company;
+
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.Links;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes login initiation idempotent per user and authentication method. Initiating a login the bank would otherwise
+ * cancel with {@link LoginStatus#CANCELLED_BY_NEW_INIT_AUTHENTICATION}, because the same user already has one
+ * pending, instead joins the pending login: the caller gets its initiation response and its session cookie, so both
+ * callers poll the same login. A login stops being pending once a final status is seen for it, its initiation or a
+ * status request of any of its callers fails, or after {@code pendingLoginTtl}, which should be the longest time a
+ * login is polled for. Status requests are mapped to their login by the {@link LoginSession} of the caller, which
+ * stays the same when the bank rotates the session cookie.
+ */
+public class DeduplicatingLoginAdapter implements AsyncLoginAdapter {
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final long pendingLoginTtlNanos;
+    private final Map<PendingLoginKey, PendingLogin> pendingLogins = new ConcurrentHashMap<>();
+    private final Map<LoginSession, PendingLogin> pendingLoginsBySession = new ConcurrentHashMap<>();
+
+    public DeduplicatingLoginAdapter(AsyncLoginAdapter loginAdapter, Duration pendingLoginTtl) {
+        this.loginAdapter = loginAdapter;
+        this.pendingLoginTtlNanos = pendingLoginTtl.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        return loginAdapter.getAllLoginMethodsAsync();
+    }
+
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        var key = new PendingLoginKey(userId, method.getCode());
+        while (true) {
+            var existing = pendingLogins.get(key);
+            if (existing != null && !existing.isExpired()) {
+                return existing.initiation.thenApply(initiatedLogin -> {
+                    existing.session.getCookie().ifPresent(session::updateCookie);
+                    track(existing, session);
+                    return initiatedLogin;
+                });
+            }
+
+            var pendingLogin = new PendingLogin(key, session, System.nanoTime() + pendingLoginTtlNanos);
+            var claimed = existing == null ? pendingLogins.putIfAbsent(key, pendingLogin) == null : pendingLogins.replace(key, existing, pendingLogin);
+            if (claimed) {
+                initiate(pendingLogin, userId, method);
+                return pendingLogin.initiation.copy();
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        return loginAdapter.getLoginStatusAsync(session, link).whenComplete((status, error) -> {
+            // polling ends with a final status or a failure, either way the login can't be joined any more
+            if (error != null || LoginStatusPoller.FINAL_STATUSES.contains(status)) {
+                Optional.ofNullable(pendingLoginsBySession.get(session)).ifPresent(this::release);
+            }
+        });
+    }
+
+    int getPendingLogins() {
+        return pendingLogins.size();
+    }
+
+    private void initiate(PendingLogin pendingLogin, String userId, AuthenticationMethod method) {
+        loginAdapter.initiateLoginAsync(pendingLogin.session, userId, method).whenComplete((initiatedLogin, error) -> {
+            if (error != null) {
+                release(pendingLogin);
+                pendingLogin.initiation.completeExceptionally(Futures.cause(error));
+                return;
+            }
+
+            var statusLink = Optional.ofNullable(initiatedLogin.getLinks()).map(Links::getNext);
+            if (statusLink.isEmpty() || LoginStatusPoller.FINAL_STATUSES.contains(initiatedLogin.getStatus())) {
+                release(pendingLogin);
+            } else {
+                track(pendingLogin, pendingLogin.session);
+                CompletableFuture.delayedExecutor(pendingLoginTtlNanos, TimeUnit.NANOSECONDS).execute(() -> release(pendingLogin));
+            }
+            pendingLogin.initiation.complete(initiatedLogin);
+        });
+    }
+
+    /**
+     * Maps status requests of {@code session} to the pending login. A session added while the login is being released
+     * is removed right away again.
+     */
+    private void track(PendingLogin pendingLogin, LoginSession session) {
+        pendingLogin.sessions.add(session);
+        pendingLoginsBySession.put(session, pendingLogin);
+        if (pendingLogin.released) {
+            pendingLoginsBySession.remove(session, pendingLogin);
+        }
+    }
+
+    private void release(PendingLogin pendingLogin) {
+        pendingLogin.released = true;
+        pendingLogins.remove(pendingLogin.key, pendingLogin);
+        pendingLogin.sessions.forEach(session -> pendingLoginsBySession.remove(session, pendingLogin));
+    }
+
+    private record PendingLoginKey(String userId, AuthenticationCode code) {
+    }
+
+    private static class PendingLogin {
+        private final PendingLoginKey key;
+        private final LoginSession session;
+        private final long expiresAt;
+        private final CompletableFuture<LoginInitiationResponse> initiation = new CompletableFuture<>();
+        // the initiating session and the sessions of joining callers
+        private final Set<LoginSession> sessions = ConcurrentHashMap.newKeySet();
+        private volatile boolean released;
+
+        private PendingLogin(PendingLoginKey key, LoginSession session, long expiresAt) {
+            this.key = key;
+            this.session = session;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt > 0;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.company;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+final class Futures {
+
+    private Futures() {
+    }
+
+    static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    static Throwable cause(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    /**
+     * Makes cancelling {@code dependent} also cancel {@code source} it was derived from, which is not done by
+     * {@link CompletableFuture} itself.
+     */
+    static <T> CompletableFuture<T> propagateCancellation(CompletableFuture<?> source, CompletableFuture<T> dependent) {
+        dependent.whenComplete((result, error) -> {
+            if (dependent.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return dependent;
+    }
+
+    static Exception unwrap(Throwable throwable) {
+        var cause = cause(throwable);
+        if (cause instanceof Exception exception) {
+            return exception;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        // a Throwable that is neither, which only a custom subclass can be
+        return new IllegalStateException(cause);
+    }
+}
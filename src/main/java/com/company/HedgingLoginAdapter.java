@@ -0,0 +1,175 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import com.company.metrics.LoginMetrics;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedges status requests, which are side effect free: when a status request has not answered within the
+ * {@link HedgingPolicy#getPercentile() percentile} of recently observed latencies, a second one is sent and the first
+ * successful answer wins, the other request is cancelled. Hedged requests are paid from a budget that grows with
+ * every status request, so hedging adds a bounded share of load even while the bank is slow. Fetching login methods
+ * and login initiation are passed through.
+ * <p>
+ * Latencies are sampled from first attempts only, and a first attempt that loses to its hedge is sampled with the
+ * time it ran until cancelled. Sampling winners only would leave out exactly the slow answers, pull the percentile
+ * down and make hedging ever more aggressive.
+ */
+public class HedgingLoginAdapter implements AsyncLoginAdapter {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int MIN_SAMPLES = 50;
+    private static final long DELAY_UPDATE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long BUDGET_UNIT = 1_000;
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final HedgingPolicy policy;
+    private final LoginMetrics metrics;
+    private final Recorder latencies = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram pendingLatencies = new Histogram(SIGNIFICANT_DIGITS);
+    private final AtomicLong nextDelayUpdate = new AtomicLong(System.nanoTime());
+    private final AtomicLong budget = new AtomicLong();
+    private final long budgetPerRequest;
+    private final long maxBudget;
+    private volatile long hedgeDelayNanos;
+
+    public HedgingLoginAdapter(AsyncLoginAdapter loginAdapter, HedgingPolicy policy, LoginMetrics metrics) {
+        this.loginAdapter = loginAdapter;
+        this.policy = policy;
+        this.metrics = metrics;
+        this.budgetPerRequest = (long) (policy.getBudgetRatio() * BUDGET_UNIT);
+        this.maxBudget = policy.getMaxBudget() * BUDGET_UNIT;
+        this.hedgeDelayNanos = policy.getInitialDelay().toNanos();
+    }
+
+    @Override
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        return loginAdapter.getAllLoginMethodsAsync();
+    }
+
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        return loginAdapter.initiateLoginAsync(session, userId, method);
+    }
+
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        depositBudget();
+        var hedgedRequest = new HedgedRequest(session, link);
+        hedgedRequest.send(false);
+        CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (!hedgedRequest.result.isDone() && withdrawBudget()) {
+                metrics.hedgeSent();
+                hedgedRequest.send(true);
+            }
+        });
+        return hedgedRequest.result;
+    }
+
+    long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    private void depositBudget() {
+        budget.getAndUpdate(current -> Math.min(maxBudget, current + budgetPerRequest));
+    }
+
+    private boolean withdrawBudget() {
+        while (true) {
+            var current = budget.get();
+            if (current < BUDGET_UNIT) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - BUDGET_UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    private void recordLatency(long latencyNanos) {
+        latencies.recordValue(latencyNanos);
+        var now = System.nanoTime();
+        var nextUpdate = nextDelayUpdate.get();
+        if (now - nextUpdate >= 0 && nextDelayUpdate.compareAndSet(nextUpdate, now + DELAY_UPDATE_INTERVAL_NANOS)) {
+            updateHedgeDelay();
+        }
+    }
+
+    private synchronized void updateHedgeDelay() {
+        pendingLatencies.add(latencies.getIntervalHistogram());
+        if (pendingLatencies.getTotalCount() >= MIN_SAMPLES) {
+            hedgeDelayNanos = Math.max(policy.getMinDelay().toNanos(), pendingLatencies.getValueAtPercentile(policy.getPercentile()));
+            pendingLatencies.reset();
+        }
+    }
+
+    private class HedgedRequest {
+        private final LoginSession session;
+        private final Link link;
+        private final CompletableFuture<LoginStatus> result = new CompletableFuture<>();
+        private final AtomicInteger pendingRequests = new AtomicInteger();
+        private final AtomicBoolean hedgeSent = new AtomicBoolean();
+        private volatile CompletableFuture<LoginStatus> primary;
+        private volatile CompletableFuture<LoginStatus> hedge;
+
+        private HedgedRequest(LoginSession session, Link link) {
+            this.session = session;
+            this.link = link;
+            // a cancelled caller cancels whatever is still running
+            result.whenComplete((status, error) -> {
+                if (result.isCancelled()) {
+                    cancel(primary);
+                    cancel(hedge);
+                }
+            });
+        }
+
+        private void send(boolean isHedge) {
+            if (isHedge && !hedgeSent.compareAndSet(false, true)) {
+                return;
+            }
+            pendingRequests.incrementAndGet();
+            var start = System.nanoTime();
+            var request = loginAdapter.getLoginStatusAsync(session, link);
+            if (isHedge) {
+                hedge = request;
+            } else {
+                primary = request;
+            }
+
+            request.whenComplete((status, error) -> {
+                var remaining = pendingRequests.decrementAndGet();
+                if (!isHedge && (error == null || request.isCancelled())) {
+                    recordLatency(System.nanoTime() - start);
+                }
+                if (error == null) {
+                    if (result.complete(status)) {
+                        if (isHedge) {
+                            metrics.hedgeWon();
+                        }
+                        cancel(isHedge ? primary : hedge);
+                    }
+                } else if (remaining == 0 && (isHedge || !hedgeSent.get() || hedge != null)) {
+                    result.completeExceptionally(Futures.cause(error));
+                }
+            });
+        }
+
+        private void cancel(CompletableFuture<LoginStatus> request) {
+            if (request != null) {
+                request.cancel(true);
+            }
+        }
+    }
+}
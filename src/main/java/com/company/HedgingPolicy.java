@@ -0,0 +1,41 @@
+package com.company;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Builder
+@EqualsAndHashCode
+@ToString
+@Getter
+public class HedgingPolicy {
+    /**
+     * Status request latency percentile after which a hedged request is sent.
+     */
+    @Builder.Default
+    private double percentile = 95;
+    /**
+     * Hedging delay used until enough latencies are observed.
+     */
+    @Builder.Default
+    private Duration initialDelay = Duration.ofMillis(500);
+    @Builder.Default
+    private Duration minDelay = Duration.ofMillis(10);
+    /**
+     * Hedged requests allowed per status request, e.g. {@code 0.05} adds at most 5% extra load.
+     */
+    @Builder.Default
+    private double budgetRatio = 0.05;
+    /**
+     * Hedged requests that can be sent in a row when the budget was not used for a while.
+     */
+    @Builder.Default
+    private int maxBudget = 10;
+
+    public static HedgingPolicy defaultPolicy() {
+        return HedgingPolicy.builder().build();
+    }
+}
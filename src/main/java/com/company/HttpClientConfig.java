@@ -0,0 +1,58 @@
+package com.company;
+
+import com.company.beans.AdapterOperation;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Settings of the {@link HttpClient} talking to the bank. Every request has a timeout, so a hung connection fails the
+ * request instead of holding a login forever.
+ */
+@Builder
+@EqualsAndHashCode
+@ToString
+@Getter
+public class HttpClientConfig {
+    /**
+     * Preferred protocol, HTTP/2 multiplexes all requests over a single connection and falls back to HTTP/1.1 when
+     * the server doesn't support it.
+     */
+    @Builder.Default
+    private HttpClient.Version version = HttpClient.Version.HTTP_2;
+    @Builder.Default
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    @Builder.Default
+    private Map<AdapterOperation, Duration> requestTimeouts = Map.of(
+            AdapterOperation.IDENTIFICATION, Duration.ofSeconds(10),
+            AdapterOperation.INITIATE, Duration.ofSeconds(10),
+            AdapterOperation.STATUS, Duration.ofSeconds(5));
+    /**
+     * Executor running response handling, a virtual thread per task when not set.
+     */
+    private Executor executor;
+
+    public static HttpClientConfig defaultConfig() {
+        return HttpClientConfig.builder().build();
+    }
+
+    public Optional<Duration> requestTimeout(AdapterOperation operation) {
+        return Optional.ofNullable(requestTimeouts.get(operation));
+    }
+
+    public HttpClient newHttpClient() {
+        return HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(connectTimeout)
+                .executor(executor != null ? executor : Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+}
@@ -1,18 +1,18 @@
 package com.company;
 
 import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
 import com.company.beans.Link;
 import com.company.beans.LoginStatus;
 import com.company.beans.dto.LoginInitiationResponse;
 
-import java.util.List;
 
 public interface LoginAdapter {
 
-    List<AuthenticationMethod> getAllLoginMethods() throws Exception;
+    AuthenticationMethodCatalog getAllLoginMethods() throws Exception;
 
-    LoginInitiationResponse initiateLogin(String userId, AuthenticationMethod method) throws Exception;
+    LoginInitiationResponse initiateLogin(LoginSession session, String userId, AuthenticationMethod method) throws Exception;
 
-    LoginStatus getLoginStatus(Link link) throws Exception;
+    LoginStatus getLoginStatus(LoginSession session, Link link) throws Exception;
 
 }
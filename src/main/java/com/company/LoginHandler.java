@@ -3,12 +3,19 @@ package com.company;
 import com.company.beans.AuthenticationCode;
 import com.company.beans.AuthenticationMethod;
 import com.company.beans.LoginStatus;
+import com.company.beans.PendingLogin;
 import com.company.beans.dto.LoginInitiationResponse;
+import com.company.tracing.TraceRecorder;
 import lombok.AllArgsConstructor;
 
+import java.io.IOException;
 import java.io.PrintStream;
-import java.time.Duration;
+import java.time.Instant;
 import java.util.Scanner;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 @AllArgsConstructor
 public class LoginHandler {
@@ -17,25 +24,61 @@ public class LoginHandler {
     public static final AuthenticationCode SELECTED_AUTH_METHOD = AuthenticationCode.BANKID_MOBILE;
     private final Scanner scanner;
     private final LoginAdapter loginAdapter;
+    private final LoginStatusPoller statusPoller;
     private final PrintStream printStream;
+    private final TraceRecorder traceRecorder;
+    private final PendingLoginJournal journal;
 
-    public void performLogin() throws Exception {
-        AuthenticationMethod loginMethod = getLoginMethod();
+    public LoginHandler(Scanner scanner, LoginAdapter loginAdapter, LoginStatusPoller statusPoller, PrintStream printStream) {
+        this(scanner, loginAdapter, statusPoller, printStream, TraceRecorder.disabled());
+    }
 
-        String userId = getUserId();
+    public LoginHandler(Scanner scanner, LoginAdapter loginAdapter, LoginStatusPoller statusPoller, PrintStream printStream,
+                        TraceRecorder traceRecorder) {
+        this(scanner, loginAdapter, statusPoller, printStream, traceRecorder, PendingLoginJournal.disabled());
+    }
+
+    /**
+     * Resumes polling of logins left pending by a previous run, in background. Their outcome is printed once known.
+     */
+    public void resumePendingLogins() {
+        for (var pendingLogin : journal.getPendingLogins()) {
+            var session = new LoginSession();
+            pendingLogin.getCookie().ifPresent(session::updateCookie);
+            printStream.println("Resuming login of user " + pendingLogin.getUserId());
+
+            pollPendingLogin(session, pendingLogin, status -> {
+            }).whenComplete((loginStatus, error) -> printStream.println(error == null
+                    ? "Resumed login of user %s finished with status: %s".formatted(pendingLogin.getUserId(), loginStatus)
+                    : "Resumed login of user %s failed: %s".formatted(pendingLogin.getUserId(), Futures.cause(error).getMessage())));
+        }
+    }
 
-        var initiatedLogin = loginAdapter.initiateLogin(userId, loginMethod);
-        checkLoginStatus(initiatedLogin);
+    public void performLogin() throws Exception {
+        performLogin(SELECTED_AUTH_METHOD);
+    }
 
+    public void performLogin(AuthenticationCode authenticationCode) throws Exception {
+        var trace = traceRecorder.startTrace();
+        try (var login = trace.startSpan("login")) {
+            try {
+                var loginMethod = trace.inSpan("fetch login methods", () -> getLoginMethod(authenticationCode));
+                var userId = trace.inSpan("enter user id", this::getUserId);
+                var session = new LoginSession(trace);
+                var initiatedLogin = trace.inSpan("initiate login", () -> loginAdapter.initiateLogin(session, userId, loginMethod));
+                login.detail(checkLoginStatus(session, userId, initiatedLogin));
+            } catch (Exception e) {
+                login.detail(e.getClass().getSimpleName());
+                throw e;
+            }
+        }
     }
 
-    private AuthenticationMethod getLoginMethod() throws Exception {
+    private AuthenticationMethod getLoginMethod(AuthenticationCode authenticationCode) throws Exception {
         var methods = loginAdapter.getAllLoginMethods();
-        printStream.println("Available login methods: " + methods.stream().map(AuthenticationMethod::getMessage).toList());
+        printStream.println("Available login methods: " + methods.getMessages());
 
-        return methods.stream()
-                .filter(method -> SELECTED_AUTH_METHOD.equals(method.getCode()))
-                .findAny().orElseThrow(() -> new IllegalStateException("%s method is not available".formatted(SELECTED_AUTH_METHOD)));
+        return methods.get(authenticationCode);
     }
 
     private String getUserId() {
@@ -44,23 +87,67 @@ public class LoginHandler {
         return userId.isBlank() ? DEFAULT_USER_ID : userId;
     }
 
-    private void checkLoginStatus(LoginInitiationResponse initiatedLogin) throws Exception {
+    /**
+     * @return outcome of the login
+     */
+    private String checkLoginStatus(LoginSession session, String userId, LoginInitiationResponse initiatedLogin) throws Exception {
         if (LoginStatus.CLIENT_NOT_STARTED.equals(initiatedLogin.getStatus())) {
-
-            for (int c = 0; c < 10; c++) {
-                Thread.sleep(Duration.ofSeconds(1));
-                var currentLoginStatus = loginAdapter.getLoginStatus(initiatedLogin.getLinks().getNext());
-
-                if (LoginStatus.COMPLETE.equals(currentLoginStatus)) {
-                    printStream.println("Login was successfully, login status: " + currentLoginStatus);
-                    break;
+            try {
+                var pendingLogin = PendingLogin.builder()
+                        .id(UUID.randomUUID().toString())
+                        .userId(userId)
+                        .statusLink(initiatedLogin.getLinks().getNext())
+                        .deadline(Instant.now().plus(statusPoller.getDeadline()))
+                        .lastStatus(initiatedLogin.getStatus())
+                        .build();
+                var loginStatus = Futures.await(pollPendingLogin(session, pendingLogin,
+                        currentLoginStatus -> printStream.println("Current login status: " + currentLoginStatus)));
+
+                if (LoginStatus.COMPLETE.equals(loginStatus)) {
+                    printStream.println("Login was successfully, login status: " + loginStatus);
+                } else {
+                    printStream.println("Current login status: " + loginStatus);
                 }
-
-                printStream.println("Current login status: " + currentLoginStatus);
+                return String.valueOf(loginStatus);
+            } catch (TimeoutException e) {
+                printStream.println(e.getMessage());
+                return BatchLoginSummary.TIMED_OUT;
             }
 
         } else {
             printStream.println("Can not proceed with current login status: " + initiatedLogin.getStatus());
+            return String.valueOf(initiatedLogin.getStatus());
+        }
+    }
+
+    /**
+     * Polls a login until its deadline while keeping its state in the journal, so it can be resumed if we stop before
+     * it is finished.
+     */
+    private CompletableFuture<LoginStatus> pollPendingLogin(LoginSession session, PendingLogin pendingLogin, Consumer<LoginStatus> statusListener) {
+        updateJournal(() -> journal.record(pendingLogin.toBuilder().cookie(session.getCookie().orElse(null)).build()));
+
+        return statusPoller.poll(session, pendingLogin.getStatusLink(), pendingLogin.getDeadline(), currentLoginStatus -> {
+            updateJournal(() -> journal.record(pendingLogin.toBuilder()
+                    .cookie(session.getCookie().orElse(null))
+                    .lastStatus(currentLoginStatus)
+                    .build()));
+            statusListener.accept(currentLoginStatus);
+        }).whenComplete((loginStatus, error) -> updateJournal(() -> journal.remove(pendingLogin.getId())));
+    }
+
+    /**
+     * A journal failure only costs the ability to resume the login, so it doesn't fail the login itself.
+     */
+    private void updateJournal(JournalUpdate update) {
+        try {
+            update.apply();
+        } catch (IOException | RuntimeException e) {
+            printStream.println("Could not update pending login journal: " + e.getMessage());
         }
     }
+
+    private interface JournalUpdate {
+        void apply() throws IOException;
+    }
 }
@@ -0,0 +1,457 @@
+package com.company;
+
+import com.company.beans.AuthenticationCode;
+import com.company.beans.LoginStatus;
+import com.company.beans.LoginStatusEvent;
+import com.company.beans.PendingLogin;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Headless HTTP API over the login adapter, for running the initiator as a service next to other applications:
+ * <ul>
+ *     <li>{@code GET /methods} lists available login methods,</li>
+ *     <li>{@code POST /logins} with {@code {"userId": "...", "method": "BANKID_MOBILE"}} initiates a login and starts
+ *     polling its status in background,</li>
+ *     <li>{@code GET /logins/<id>} returns the current status of a login. With {@code ?wait=<seconds>} it is held
+ *     until the status changes from the one given by {@code since}, or the current one, or the login finishes.</li>
+ * </ul>
+ * Logins are identified by random ids, so one client can't guess the id of another's login. The service listens on
+ * loopback unless given another address, as it has no authentication of its own. Requests the bank rejects are
+ * answered with 422, failures of the bank with 502 and requests shed locally with 503.
+ * <p>
+ * Every request is served on its own virtual thread, so long polls don't take platform threads. Status changes come
+ * from the {@link LoginStatusPublisher} of the poller; a login finishes with the result of polling it, which unlike an
+ * event is never dropped. Finished logins can still be read for {@link #FINISHED_LOGIN_RETENTION}.
+ * <p>
+ * Pending logins are kept in a {@link PendingLoginJournal} when given one, and the ones left by a previous run are
+ * resumed on start under the same ids, so clients can keep reading them across a restart.
+ */
+public class LoginService implements AutoCloseable {
+
+    static final Duration FINISHED_LOGIN_RETENTION = Duration.ofMinutes(1);
+    static final Duration MAX_WAIT = Duration.ofSeconds(60);
+    private static final String METHODS_PATH = "/methods";
+    private static final String LOGINS_PATH = "/logins";
+    private static final String TIMED_OUT = "TIMED_OUT";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AsyncLoginAdapter loginAdapter;
+    private final LoginStatusPoller statusPoller;
+    private final PendingLoginJournal journal;
+    private final Map<String, ServiceLogin> logins = new ConcurrentHashMap<>();
+    private final Map<Long, ServiceLogin> loginsBySession = new ConcurrentHashMap<>();
+    private final StatusSubscriber statusSubscriber = new StatusSubscriber();
+
+    private LoginService(HttpServer server, ExecutorService executor, AsyncLoginAdapter loginAdapter, LoginStatusPoller statusPoller,
+                         PendingLoginJournal journal) {
+        this.server = server;
+        this.executor = executor;
+        this.loginAdapter = loginAdapter;
+        this.statusPoller = statusPoller;
+        this.journal = journal;
+    }
+
+    /**
+     * Starts the service on the given port of the loopback interface, 0 picks a free port.
+     *
+     * @param statusPublisher publisher the {@code statusPoller} publishes status changes to
+     */
+    public static LoginService start(int port, AsyncLoginAdapter loginAdapter, LoginStatusPoller statusPoller,
+                                     LoginStatusPublisher statusPublisher) throws IOException {
+        return start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), loginAdapter, statusPoller, statusPublisher);
+    }
+
+    /**
+     * Starts the service on the given address. Anyone who can reach it can log in users, so expose it beyond loopback
+     * only behind something that authenticates clients.
+     */
+    public static LoginService start(InetSocketAddress address, AsyncLoginAdapter loginAdapter, LoginStatusPoller statusPoller,
+                                     LoginStatusPublisher statusPublisher) throws IOException {
+        return start(address, loginAdapter, statusPoller, statusPublisher, PendingLoginJournal.disabled());
+    }
+
+    /**
+     * Like {@link #start(InetSocketAddress, AsyncLoginAdapter, LoginStatusPoller, LoginStatusPublisher)}, but keeps
+     * pending logins in {@code journal} and resumes the ones already in it.
+     */
+    public static LoginService start(InetSocketAddress address, AsyncLoginAdapter loginAdapter, LoginStatusPoller statusPoller,
+                                     LoginStatusPublisher statusPublisher, PendingLoginJournal journal) throws IOException {
+        var server = HttpServer.create(address, 0);
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        var service = new LoginService(server, executor, loginAdapter, statusPoller, journal);
+        statusPublisher.subscribe(service.statusSubscriber);
+        service.resumePendingLogins();
+
+        server.createContext(METHODS_PATH, service::handle);
+        server.createContext(LOGINS_PATH, service::handle);
+        server.setExecutor(executor);
+        server.start();
+        return service;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Number of logins which can still be read, including recently finished ones.
+     */
+    int getLogins() {
+        return logins.size();
+    }
+
+    @Override
+    public void close() {
+        statusSubscriber.cancel();
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (BankApiException e) {
+                respondError(exchange, e.isServerError() ? 502 : 422, "Bank API request failed: " + e.getMessage());
+            } catch (IllegalStateException e) {
+                respondError(exchange, 503, e.getMessage());
+            } catch (Exception e) {
+                respondError(exchange, 502, "Bank API request failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws Exception {
+        var path = exchange.getRequestURI().getPath();
+        var method = exchange.getRequestMethod();
+        if ("GET".equals(method) && METHODS_PATH.equals(path)) {
+            getLoginMethods(exchange);
+        } else if ("POST".equals(method) && LOGINS_PATH.equals(path)) {
+            initiateLogin(exchange);
+        } else if ("GET".equals(method) && path.startsWith(LOGINS_PATH + "/")) {
+            getLogin(exchange, path.substring(LOGINS_PATH.length() + 1));
+        } else {
+            respondError(exchange, 404, "Not found");
+        }
+    }
+
+    private void getLoginMethods(HttpExchange exchange) throws Exception {
+        var catalog = Futures.await(loginAdapter.getAllLoginMethodsAsync());
+        respond(exchange, 200, writer -> {
+            writer.beginObject().name("methods").beginArray();
+            for (var method : catalog.getMethods()) {
+                writer.beginObject()
+                        .name("code").value(method.getCode() == null ? null : method.getCode().name())
+                        .name("message").value(method.getMessage())
+                        .endObject();
+            }
+            writer.endArray().endObject();
+        });
+    }
+
+    private void initiateLogin(HttpExchange exchange) throws Exception {
+        var request = readLoginRequest(exchange);
+        if (request.isEmpty()) {
+            respondError(exchange, 400, "Body must have userId and a method out of " + Arrays.toString(AuthenticationCode.values()));
+            return;
+        }
+
+        var method = Futures.await(loginAdapter.getAllLoginMethodsAsync()).find(request.get().method());
+        if (method.isEmpty()) {
+            respondError(exchange, 400, "%s method is not available".formatted(request.get().method()));
+            return;
+        }
+        var session = new LoginSession();
+        var initiatedLogin = Futures.await(loginAdapter.initiateLoginAsync(session, request.get().userId(), method.get()));
+
+        var login = new ServiceLogin(UUID.randomUUID().toString(), session.getId(), initiatedLogin.getStatus());
+        logins.put(login.id, login);
+        loginsBySession.put(login.sessionId, login);
+        if (LoginStatus.CLIENT_NOT_STARTED.equals(initiatedLogin.getStatus())) {
+            poll(login, session, PendingLogin.builder()
+                    .id(login.id)
+                    .userId(request.get().userId())
+                    .statusLink(initiatedLogin.getLinks().getNext())
+                    .deadline(Instant.now().plus(statusPoller.getDeadline()))
+                    .lastStatus(initiatedLogin.getStatus())
+                    .build());
+        } else {
+            finish(login, initiatedLogin.getStatus(), null);
+        }
+        respondLogin(exchange, 201, login);
+    }
+
+    private void resumePendingLogins() {
+        for (var pendingLogin : journal.getPendingLogins()) {
+            var session = new LoginSession();
+            pendingLogin.getCookie().ifPresent(session::updateCookie);
+            var login = new ServiceLogin(pendingLogin.getId(), session.getId(), pendingLogin.getLastStatus().orElse(LoginStatus.CLIENT_NOT_STARTED));
+            logins.put(login.id, login);
+            loginsBySession.put(login.sessionId, login);
+            poll(login, session, pendingLogin);
+        }
+    }
+
+    /**
+     * Polls a login until its deadline while keeping its state in the journal. Status changes reach the login through
+     * the status subscriber.
+     */
+    private void poll(ServiceLogin login, LoginSession session, PendingLogin pendingLogin) {
+        updateJournal(() -> journal.record(pendingLogin.toBuilder().cookie(session.getCookie().orElse(null)).build()));
+        statusPoller.poll(session, pendingLogin.getStatusLink(), pendingLogin.getDeadline(), status -> updateJournal(() -> journal.record(
+                pendingLogin.toBuilder().cookie(session.getCookie().orElse(null)).lastStatus(status).build())))
+                .whenComplete((loginStatus, error) -> {
+                    updateJournal(() -> journal.remove(pendingLogin.getId()));
+                    finish(login, loginStatus, error);
+                });
+    }
+
+    /**
+     * A journal failure only costs the ability to resume the login, so it doesn't fail the login itself.
+     */
+    private static void updateJournal(JournalUpdate update) {
+        try {
+            update.apply();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not update pending login journal: " + e.getMessage());
+        }
+    }
+
+    private void getLogin(HttpExchange exchange, String id) throws Exception {
+        var login = logins.get(id);
+        if (login == null) {
+            respondError(exchange, 404, "Login %s is not found".formatted(id));
+            return;
+        }
+
+        var query = readQuery(exchange);
+        Duration wait;
+        String since;
+        try {
+            wait = Optional.ofNullable(query.get("wait")).map(Long::parseLong).map(Duration::ofSeconds).orElse(Duration.ZERO);
+            since = Optional.ofNullable(query.get("since")).map(status -> LoginStatus.valueOf(status).name()).orElse(login.state.get().status);
+        } catch (IllegalArgumentException e) {
+            respondError(exchange, 400, "Query must have wait in seconds and since as a login status");
+            return;
+        }
+
+        if (wait.isPositive()) {
+            login.awaitChange(since, wait.compareTo(MAX_WAIT) > 0 ? MAX_WAIT : wait);
+        }
+        respondLogin(exchange, 200, login);
+    }
+
+    private void finish(ServiceLogin login, LoginStatus loginStatus, Throwable error) {
+        var cause = error == null ? null : Futures.cause(error);
+        if (cause == null) {
+            login.finish(loginStatus.name(), null);
+        } else if (cause instanceof TimeoutException) {
+            login.finish(TIMED_OUT, cause.getMessage());
+        } else {
+            login.finish(login.state.get().status, cause.getMessage());
+        }
+        CompletableFuture.delayedExecutor(FINISHED_LOGIN_RETENTION.toNanos(), TimeUnit.NANOSECONDS)
+                .execute(() -> {
+                    logins.remove(login.id, login);
+                    loginsBySession.remove(login.sessionId, login);
+                });
+    }
+
+    private static Optional<LoginRequest> readLoginRequest(HttpExchange exchange) {
+        try (var reader = new JsonReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String userId = null;
+            AuthenticationCode method = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "userId" -> userId = reader.nextString();
+                    case "method" -> method = AuthenticationCode.valueOf(reader.nextString());
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return userId == null || userId.isBlank() || method == null ? Optional.empty() : Optional.of(new LoginRequest(userId, method));
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Map<String, String> readQuery(HttpExchange exchange) {
+        var query = new HashMap<String, String>();
+        var rawQuery = exchange.getRequestURI().getRawQuery();
+        if (rawQuery != null) {
+            for (var parameter : rawQuery.split("&")) {
+                var separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    query.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                            URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    private static void respondLogin(HttpExchange exchange, int statusCode, ServiceLogin login) throws IOException {
+        var state = login.state.get();
+        respond(exchange, statusCode, writer -> {
+            writer.beginObject()
+                    .name("id").value(login.id)
+                    .name("status").value(state.status)
+                    .name("finished").value(state.finished);
+            if (state.error != null) {
+                writer.name("error").value(state.error);
+            }
+            writer.endObject();
+        });
+    }
+
+    private static void respondError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        respond(exchange, statusCode, writer -> writer.beginObject().name("error").value(message).endObject());
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, JsonBody body) throws IOException {
+        var bytes = new ByteArrayOutputStream(128);
+        try (var writer = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            body.write(writer);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.size());
+        bytes.writeTo(exchange.getResponseBody());
+    }
+
+    /**
+     * Moves logins to the status published for their session. Finishing is left to the result of polling.
+     */
+    private class StatusSubscriber implements Flow.Subscriber<LoginStatusEvent> {
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(LoginStatusEvent event) {
+            var login = loginsBySession.get(event.getSessionId());
+            if (login != null && !event.isFinished()) {
+                login.update(event.getStatus());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        private void cancel() {
+            Optional.ofNullable(subscription).ifPresent(Flow.Subscription::cancel);
+        }
+    }
+
+    private interface JournalUpdate {
+        void apply() throws IOException;
+    }
+
+    private interface JsonBody {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    private record LoginRequest(String userId, AuthenticationCode method) {
+    }
+
+    private record LoginState(String status, boolean finished, String error) {
+    }
+
+    /**
+     * Login as seen by clients of the service. Every change of its state completes the future waiting clients hold,
+     * which avoids monitor waits that would pin the virtual threads they are served on.
+     */
+    private static class ServiceLogin {
+        private final String id;
+        private final long sessionId;
+        private final AtomicReference<LoginState> state;
+        private final AtomicReference<CompletableFuture<Void>> changed = new AtomicReference<>(new CompletableFuture<>());
+
+        private ServiceLogin(String id, long sessionId, LoginStatus status) {
+            this.id = id;
+            this.sessionId = sessionId;
+            this.state = new AtomicReference<>(new LoginState(status.name(), false, null));
+        }
+
+        /**
+         * Changes the status of a login that is not finished yet, as an event can arrive after polling ended.
+         */
+        private void update(LoginStatus status) {
+            var newState = new LoginState(status.name(), false, null);
+            while (true) {
+                var current = state.get();
+                if (current.finished || current.equals(newState)) {
+                    return;
+                }
+                if (state.compareAndSet(current, newState)) {
+                    changed.getAndSet(new CompletableFuture<>()).complete(null);
+                    return;
+                }
+            }
+        }
+
+        private void finish(String status, String error) {
+            var newState = new LoginState(status, true, error);
+            if (!newState.equals(state.getAndSet(newState))) {
+                changed.getAndSet(new CompletableFuture<>()).complete(null);
+            }
+        }
+
+        private void awaitChange(String since, Duration wait) throws InterruptedException {
+            var change = changed.get();
+            var current = state.get();
+            if (current.finished || !current.status.equals(since)) {
+                return;
+            }
+            try {
+                change.get(wait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // the client gets the unchanged status and polls again
+            }
+        }
+    }
+}
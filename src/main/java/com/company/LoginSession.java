@@ -0,0 +1,62 @@
+package com.company;
+
+import com.company.beans.LoginStatus;
+import com.company.tracing.Trace;
+import lombok.ToString;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * State of a single login conversation with the bank. Holds the session cookie returned by the bank so that one
+ * adapter instance can serve any number of parallel logins.
+ */
+@ToString
+public class LoginSession {
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    private final long id = NEXT_ID.incrementAndGet();
+    private volatile String cookie;
+    private final AtomicReference<LoginStatus> status = new AtomicReference<>();
+    @ToString.Exclude
+    private final Trace trace;
+
+    public LoginSession() {
+        this(Trace.NOOP);
+    }
+
+    /**
+     * @param trace timeline stages of this login are recorded into
+     */
+    public LoginSession(Trace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * @return identifier of this login, unique within the running process
+     */
+    public long getId() {
+        return id;
+    }
+
+    public Trace getTrace() {
+        return trace;
+    }
+
+    public Optional<String> getCookie() {
+        return Optional.ofNullable(cookie);
+    }
+
+    void updateCookie(String cookie) {
+        this.cookie = cookie;
+    }
+
+    /**
+     * @return status seen before this update, empty for a fresh session
+     */
+    Optional<LoginStatus> updateStatus(LoginStatus status) {
+        return Optional.ofNullable(this.status.getAndSet(status));
+    }
+}
@@ -0,0 +1,213 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.LoginStatusEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Polls login status of any number of pending logins from one shared scheduler thread. Status requests are
+ * non-blocking, so the scheduler thread is only used to fire the next check. Every change of a login status is
+ * published to the {@link LoginStatusPublisher}, and so is the end of polling a login, including a timeout or failure.
+ * Closing the poller closes the publisher too. Polling state of the logins is kept in a {@link PendingSessionTable};
+ * the task polling a login holds only what the caller passed in besides its handle.
+ */
+public class LoginStatusPoller implements AutoCloseable {
+
+    static final Set<LoginStatus> FINAL_STATUSES = EnumSet.of(LoginStatus.COMPLETE, LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION);
+    private static final int INITIAL_PENDING_SESSIONS = 1_024;
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final ScheduledExecutorService scheduler;
+    private final PollingPolicy policy;
+    private final LoginStatusPublisher statusPublisher;
+    private final PendingSessionTable pendingSessions = new PendingSessionTable(INITIAL_PENDING_SESSIONS);
+
+    public LoginStatusPoller(AsyncLoginAdapter loginAdapter, PollingPolicy policy) {
+        this(loginAdapter, policy, new LoginStatusPublisher());
+    }
+
+    public LoginStatusPoller(AsyncLoginAdapter loginAdapter, PollingPolicy policy, LoginStatusPublisher statusPublisher) {
+        this(loginAdapter, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "login-status-poller");
+            thread.setDaemon(true);
+            return thread;
+        }), policy, statusPublisher);
+    }
+
+    LoginStatusPoller(AsyncLoginAdapter loginAdapter, ScheduledExecutorService scheduler, PollingPolicy policy,
+                      LoginStatusPublisher statusPublisher) {
+        this.loginAdapter = loginAdapter;
+        this.scheduler = scheduler;
+        this.policy = policy;
+        this.statusPublisher = statusPublisher;
+    }
+
+    /**
+     * Starts polling status of the login behind {@code link}. Every intermediate status is passed to
+     * {@code statusListener}, the returned future completes with the first final status, or with
+     * {@link TimeoutException} when the policy runs out of attempts or time. Cancelling the future stops polling.
+     */
+    public CompletableFuture<LoginStatus> poll(LoginSession session, Link link, Consumer<LoginStatus> statusListener) {
+        return poll(session, link, policy.getDeadline().toNanos(), statusListener);
+    }
+
+    /**
+     * Like {@link #poll(LoginSession, Link, Consumer)}, but also gives up at {@code deadline}, for logins resumed
+     * after part of their time has passed.
+     */
+    public CompletableFuture<LoginStatus> poll(LoginSession session, Link link, Instant deadline, Consumer<LoginStatus> statusListener) {
+        var remaining = Duration.between(Instant.now(), deadline).toNanos();
+        return poll(session, link, Math.min(remaining, policy.getDeadline().toNanos()), statusListener);
+    }
+
+    /**
+     * @return number of logins being polled
+     */
+    public int getPendingLogins() {
+        return pendingSessions.size();
+    }
+
+    /**
+     * @return longest time a login is polled for
+     */
+    public Duration getDeadline() {
+        return policy.getDeadline();
+    }
+
+    private CompletableFuture<LoginStatus> poll(LoginSession session, Link link, long timeoutNanos, Consumer<LoginStatus> statusListener) {
+        var task = new PollingTask(session, link, statusListener, System.nanoTime() + timeoutNanos);
+        task.scheduleNext();
+        return task.result;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        statusPublisher.close();
+    }
+
+    private class PollingTask {
+        private final LoginSession session;
+        private final Consumer<LoginStatus> statusListener;
+        private final CompletableFuture<LoginStatus> result = new CompletableFuture<>();
+        // the login in the table is only touched by the steps of polling it, which never run concurrently
+        private final int handle;
+
+        private PollingTask(LoginSession session, Link link, Consumer<LoginStatus> statusListener, long deadline) {
+            this.session = session;
+            this.statusListener = statusListener;
+            this.handle = pendingSessions.add(link, deadline);
+        }
+
+        private void scheduleNext() {
+            var attempt = pendingSessions.getAttempts(handle);
+            var delay = policy.delayBeforeAttempt(attempt).toNanos();
+            if (attempt >= policy.getMaxAttempts() || System.nanoTime() + delay > pendingSessions.getDeadline(handle)) {
+                result.completeExceptionally(new TimeoutException("Login was not completed after %d status checks".formatted(attempt)));
+                end();
+                return;
+            }
+
+            pendingSessions.startWait(handle, System.nanoTime());
+            try {
+                scheduler.schedule(this::check, delay, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(new IllegalStateException("Login status poller is closed", e));
+                end();
+            }
+        }
+
+        private void check() {
+            // cancelled while waiting
+            if (result.isDone()) {
+                end();
+                return;
+            }
+
+            var trace = session.getTrace();
+            trace.recordSpan("wait", pendingSessions.getWaitStart(handle), System.nanoTime());
+            var attempt = pendingSessions.startAttempt(handle);
+            var statusCheck = trace.startSpan("status check");
+            loginAdapter.getLoginStatusAsync(session, pendingSessions.getStatusLink(handle)).whenComplete((status, error) -> {
+                if (trace.isSampled()) {
+                    statusCheck.detail("#%d %s".formatted(attempt, error != null ? error.getClass().getSimpleName() : status));
+                }
+                statusCheck.close();
+                if (result.isDone()) {
+                    end();
+                    return;
+                }
+                if (error != null) {
+                    result.completeExceptionally(Futures.cause(error));
+                    end();
+                    return;
+                }
+
+                publishTransition(status, FINAL_STATUSES.contains(status));
+                if (FINAL_STATUSES.contains(status)) {
+                    result.complete(status);
+                    end();
+                } else {
+                    statusListener.accept(status);
+                    scheduleNext();
+                }
+            });
+        }
+
+        /**
+         * Ends polling once the result is completed, by the poller or by its caller, and frees the login in the table.
+         */
+        private void end() {
+            var error = result.handle((status, e) -> e).join();
+            if (error != null) {
+                publishFailure(Futures.cause(error));
+            }
+            pendingSessions.remove(handle);
+        }
+
+        /**
+         * Publishes the status unless it is the same as the previous one. The first status seen has no previous one.
+         */
+        private void publishTransition(LoginStatus status, boolean finished) {
+            var previousStatus = pendingSessions.updateStatus(handle, status);
+            if (status != previousStatus && statusPublisher.hasSubscribers()) {
+                statusPublisher.publish(event(status, previousStatus).finished(finished).build());
+            }
+        }
+
+        /**
+         * Publishes the end of polling without a final status, with the last status seen.
+         */
+        private void publishFailure(Throwable cause) {
+            if (statusPublisher.hasSubscribers()) {
+                var lastStatus = pendingSessions.getStatus(handle);
+                statusPublisher.publish(event(lastStatus, lastStatus)
+                        .finished(true)
+                        .timedOut(cause instanceof TimeoutException)
+                        .error(String.valueOf(cause.getMessage()))
+                        .build());
+            }
+        }
+
+        private LoginStatusEvent.LoginStatusEventBuilder event(LoginStatus status, LoginStatus previousStatus) {
+            return LoginStatusEvent.builder()
+                    .sessionId(session.getId())
+                    .statusLink(pendingSessions.getStatusLink(handle))
+                    .previousStatus(previousStatus)
+                    .status(status)
+                    .timestamp(Instant.now());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.company;
+
+import com.company.beans.LoginStatusEvent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes status changes of polled logins to any number of subscribers, so they can watch logins without polling
+ * the bank themselves. Every subscriber gets events only as fast as it requests them. Events that don't fit into the
+ * buffer of a subscriber that fell behind are dropped for that subscriber, so a slow subscriber never slows down
+ * polling.
+ */
+public class LoginStatusPublisher implements Flow.Publisher<LoginStatusEvent>, AutoCloseable {
+
+    private final SubmissionPublisher<LoginStatusEvent> publisher;
+    // executor created by the publisher itself, closed together with it
+    private final ExecutorService ownExecutor;
+    private final LongAdder droppedEvents = new LongAdder();
+
+    /**
+     * Delivers events on virtual threads, so subscribers are free to block.
+     */
+    public LoginStatusPublisher() {
+        this(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * @param maxBufferCapacity most events buffered for a single subscriber
+     */
+    public LoginStatusPublisher(Executor executor, int maxBufferCapacity) {
+        publisher = new SubmissionPublisher<>(executor, maxBufferCapacity);
+        ownExecutor = null;
+    }
+
+    private LoginStatusPublisher(ExecutorService executor) {
+        publisher = new SubmissionPublisher<>(executor, Flow.defaultBufferSize());
+        ownExecutor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super LoginStatusEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * @return whether anyone listens, so events don't have to be created when nobody does
+     */
+    public boolean hasSubscribers() {
+        return publisher.hasSubscribers();
+    }
+
+    public void publish(LoginStatusEvent event) {
+        if (publisher.isClosed()) {
+            return;
+        }
+        publisher.offer(event, (subscriber, dropped) -> {
+            droppedEvents.increment();
+            return false;
+        });
+    }
+
+    /**
+     * @return number of events subscribers missed because they fell behind
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Completes all subscriptions once their buffered events are delivered, and stops the executor the publisher
+     * created.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+        if (ownExecutor != null) {
+            ownExecutor.close();
+        }
+    }
+}
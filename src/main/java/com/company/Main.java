@@ -1,29 +1,232 @@
 package com.company;
 
+import com.company.beans.AdapterOperation;
+import com.company.metrics.LoginMetrics;
+import com.company.tracing.TraceRecorder;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 
 @AllArgsConstructor(access = AccessLevel.PACKAGE)
 public class Main {
 
+    private static final String BATCH_MODE = "--batch";
+    private static final String SERVICE_MODE = "--service";
+    private static final int DEFAULT_SERVICE_PORT = 8081;
+    private static final int DEFAULT_BATCH_CONCURRENCY = 10_000;
+    private static final Duration LOGIN_METHODS_TTL = Duration.ofMinutes(10);
+    private static final Duration LOGIN_METHODS_REFRESH_AHEAD = Duration.ofMinutes(1);
+    private static final Duration LOGIN_METHODS_STALE_IF_ERROR = Duration.ofHours(1);
+    private static final int TRACE_CAPACITY = 10_000;
+    private static final int JOURNAL_CAPACITY = 1_024;
+    private static final Duration RATE_LIMIT_MAX_WAIT = Duration.ofSeconds(1);
+    private static final int INITIAL_CONCURRENCY_LIMIT = 20;
+    private static final int MAX_CONCURRENCY_LIMIT = 1_000;
+    private static final int MAX_QUEUED_REQUESTS = 10_000;
+    private static final Duration MAX_QUEUE_WAIT = Duration.ofSeconds(5);
+    private static final int CIRCUIT_BREAKER_WINDOW = 100;
+    private static final int CIRCUIT_BREAKER_MINIMUM_CALLS = 20;
+    private static final double CIRCUIT_BREAKER_FAILURE_RATE = 0.5;
+    private static final Duration CIRCUIT_BREAKER_OPEN_DURATION = Duration.ofSeconds(30);
+    private static final int CIRCUIT_BREAKER_HALF_OPEN_CALLS = 5;
+    private static final Duration LOGIN_STATUS_FRESHNESS = Duration.ofMillis(100);
+    // the limits add up to MAX_CONCURRENCY_LIMIT, so status polls can never take the capacity reserved for login initiation
+    private static final Map<AdapterOperation, BulkheadLoginAdapter.Limits> BULKHEAD_LIMITS = Map.of(
+            AdapterOperation.IDENTIFICATION, new BulkheadLoginAdapter.Limits(10, 1_000),
+            AdapterOperation.INITIATE, new BulkheadLoginAdapter.Limits(400, 10_000),
+            AdapterOperation.STATUS, new BulkheadLoginAdapter.Limits(590, 10_000));
+
     private final Scanner scanner;
     private final LoginHandler loginHandler;
     private final PrintStream printStream;
+    private final LoginStatusPublisher statusPublisher;
 
-    public Main() {
+    public Main() throws IOException {
         scanner = new Scanner(System.in);
         printStream = System.out;
-        loginHandler = new LoginHandler(scanner, new SwedbankLoginAdapter(), printStream);
+        statusPublisher = new LoginStatusPublisher();
+        var loginAdapter = createLoginAdapter();
+        warmUp(loginAdapter);
+        var journal = openJournal();
+        loginHandler = new LoginHandler(scanner, new BlockingLoginAdapter(loginAdapter),
+                new LoginStatusPoller(loginAdapter, PollingPolicy.defaultPolicy(), statusPublisher), printStream, createTraceRecorder(), journal);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && BATCH_MODE.equals(args[0])) {
+            runBatch(Arrays.asList(args).subList(1, args.length));
+        } else if (args.length > 0 && SERVICE_MODE.equals(args[0])) {
+            runService(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SERVICE_PORT);
+        } else {
+            new Main().run();
+        }
+    }
+
+    /**
+     * Logs in every given user concurrently and prints how many logins ended with each outcome. Concurrency is
+     * limited by the {@code batch.concurrency} system property.
+     */
+    static void runBatch(List<String> userIds) throws Exception {
+        var loginAdapter = createLoginAdapter();
+        warmUp(loginAdapter).join();
+        try (var statusPoller = new LoginStatusPoller(loginAdapter, PollingPolicy.defaultPolicy(), new LoginStatusPublisher())) {
+            var batchRunner = new BatchLoginRunner(new BlockingLoginAdapter(loginAdapter), statusPoller,
+                    Integer.getInteger("batch.concurrency", DEFAULT_BATCH_CONCURRENCY));
+
+            batchRunner.run(userIds).print(System.out);
+        }
+    }
+
+    /**
+     * Serves logins over HTTP until the process is stopped, see {@link LoginService} for the API. The service listens
+     * on loopback unless the {@code service.host} system property gives another address to bind to, and keeps pending
+     * logins in the journal given by {@code journal.file}.
+     */
+    static void runService(int port) throws IOException {
+        var loginAdapter = createLoginAdapter();
+        warmUp(loginAdapter);
+        var statusPublisher = new LoginStatusPublisher();
+        var statusPoller = new LoginStatusPoller(loginAdapter, PollingPolicy.defaultPolicy(), statusPublisher);
+        var host = System.getProperty("service.host");
+        var address = host == null ? new InetSocketAddress(InetAddress.getLoopbackAddress(), port) : new InetSocketAddress(host, port);
+        var journal = openJournal();
+        var service = LoginService.start(address, loginAdapter, statusPoller, statusPublisher, journal);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            service.close();
+            statusPoller.close();
+            journal.close();
+        }));
+        System.out.println("Login service is listening on port " + service.getPort());
+    }
+
+    /**
+     * Traces the share of logins given by the {@code trace.sample-rate} system property. Recorded spans are written
+     * on exit to the Chrome trace file given by {@code trace.file}.
+     */
+    static TraceRecorder createTraceRecorder() {
+        var sampleRate = Double.parseDouble(System.getProperty("trace.sample-rate", "0"));
+        if (sampleRate == 0) {
+            return TraceRecorder.disabled();
+        }
+
+        var traceRecorder = new TraceRecorder(TRACE_CAPACITY, sampleRate);
+        var traceFile = Path.of(System.getProperty("trace.file", "login-trace.json"));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try (var writer = Files.newBufferedWriter(traceFile)) {
+                traceRecorder.exportChromeTrace(writer);
+            } catch (IOException e) {
+                System.err.println("Could not write login trace: " + e.getMessage());
+            }
+        }));
+        return traceRecorder;
+    }
+
+    /**
+     * Opens the journal given by the {@code journal.file} system property, so logins pending when the process stops
+     * are resumed by the next run. Without the property, or when the journal can't be opened, logins are not kept.
+     */
+    static PendingLoginJournal openJournal() {
+        return openJournal(System.getProperty("journal.file"));
+    }
+
+    static PendingLoginJournal openJournal(String journalFile) {
+        if (journalFile == null) {
+            return PendingLoginJournal.disabled();
+        }
+        try {
+            return PendingLoginJournal.open(Path.of(journalFile), JOURNAL_CAPACITY);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not open pending login journal, pending logins won't be resumed: " + e.getMessage());
+            return PendingLoginJournal.disabled();
+        }
+    }
+
+    static AsyncLoginAdapter createLoginAdapter() {
+        var metrics = new LoginMetrics();
+        var swedbankLoginAdapter = new SwedbankLoginAdapter(HttpClientConfig.defaultConfig(),
+                System.getProperty("swedbank.base-path", SwedbankLoginAdapter.DEFAULT_BASE_PATH), metrics);
+        return createLoginAdapter(swedbankLoginAdapter, Boolean.getBoolean("hedging.enabled"), metrics, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Wraps the adapter talking to the bank with everything that protects the bank and the service from each other.
+     */
+    static AsyncLoginAdapter createLoginAdapter(AsyncLoginAdapter bankAdapter, boolean hedging, LoginMetrics metrics, MBeanServer mBeanServer) {
+        var concurrencyLimitingAdapter = new ConcurrencyLimitingLoginAdapter(bankAdapter,
+                new AdaptiveConcurrencyLimit(INITIAL_CONCURRENCY_LIMIT, 1, MAX_CONCURRENCY_LIMIT), MAX_QUEUED_REQUESTS, MAX_QUEUE_WAIT);
+        var bulkheadAdapter = new BulkheadLoginAdapter(concurrencyLimitingAdapter, BULKHEAD_LIMITS, MAX_CONCURRENCY_LIMIT, MAX_QUEUE_WAIT);
+        var rateLimitingAdapter = new RateLimitingLoginAdapter(bulkheadAdapter, createTokenBuckets(), RATE_LIMIT_MAX_WAIT);
+        // hedges take permits and slots like any other request, the losing one is cancelled through all the layers below
+        var hedgingAdapter = hedging ? new HedgingLoginAdapter(rateLimitingAdapter, HedgingPolicy.defaultPolicy(), metrics) : rateLimitingAdapter;
+
+        var circuitBreaker = new CircuitBreaker(CIRCUIT_BREAKER_WINDOW, CIRCUIT_BREAKER_MINIMUM_CALLS, CIRCUIT_BREAKER_FAILURE_RATE,
+                CIRCUIT_BREAKER_OPEN_DURATION, CIRCUIT_BREAKER_HALF_OPEN_CALLS);
+        var resilientAdapter = new ResilientLoginAdapter(hedgingAdapter, circuitBreaker, RetryPolicy.defaultPolicy());
+
+        var coalescingAdapter = new CoalescingLoginAdapter(resilientAdapter, LOGIN_STATUS_FRESHNESS);
+
+        var deduplicatingAdapter = new DeduplicatingLoginAdapter(coalescingAdapter, PollingPolicy.defaultPolicy().getMaxDuration());
+
+        try {
+            metrics.register(mBeanServer);
+            bulkheadAdapter.register(mBeanServer);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register login metrics", e);
+        }
+
+        return new CachingLoginAdapter(deduplicatingAdapter, LOGIN_METHODS_TTL, LOGIN_METHODS_REFRESH_AHEAD, LOGIN_METHODS_STALE_IF_ERROR);
+    }
+
+    /**
+     * Fetches login methods in background, which opens the connection to the bank, including the TLS handshake, and
+     * fills the catalog cache before the first login needs them. A failure is left for the first login to report.
+     */
+    static CompletableFuture<?> warmUp(AsyncLoginAdapter loginAdapter) {
+        return loginAdapter.getAllLoginMethodsAsync().exceptionally(error -> null);
+    }
+
+    /**
+     * Limits every operation with a {@code rate-limit.<operation>} system property, e.g. {@code -Drate-limit.status=200},
+     * to that many requests per second, allowing bursts of one second worth of requests.
+     */
+    private static EnumMap<AdapterOperation, TokenBucket> createTokenBuckets() {
+        var buckets = new EnumMap<AdapterOperation, TokenBucket>(AdapterOperation.class);
+        for (var operation : AdapterOperation.values()) {
+            var permitsPerSecond = System.getProperty("rate-limit." + operation.name().toLowerCase(Locale.ROOT));
+            if (permitsPerSecond != null) {
+                var rate = Double.parseDouble(permitsPerSecond);
+                buckets.put(operation, new TokenBucket(rate, (int) Math.max(1, rate)));
+            }
+        }
+        return buckets;
     }
 
-    public static void main(String[] args) {
-        new Main().run();
+    /**
+     * @return status changes of logins polled by this instance, for watching them from the same process
+     */
+    public LoginStatusPublisher getStatusPublisher() {
+        return statusPublisher;
     }
 
     public void run() {
+        loginHandler.resumePendingLogins();
         var retry = true;
         while (retry) {
             try {
@@ -0,0 +1,355 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.PendingLogin;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of pending logins in a memory-mapped file, so logins can be resumed after a restart. Every
+ * change appends a fixed-size record protected by a CRC: either the full state of a pending login or the removal of
+ * one, keyed by the id of the login. On open the journal is replayed up to the first incomplete record, which is
+ * where a crash interrupted a write. The file is compacted to live records every {@link #COMPACTION_INTERVAL} and
+ * whenever it fills up, and grown if those take more than half of it. Compaction writes a new file and moves it over
+ * the old one, so it is crash safe too. The new file is written and forced outside the lock records are appended
+ * under, so recording a login doesn't wait for it unless the journal is full; records appended meanwhile are copied
+ * over before the move. Records survive a crash of the process; surviving a power loss would need
+ * {@link MappedByteBuffer#force()}.
+ * <p>
+ * Records hold session cookies in plain text, which is enough to take over a login until it finishes. Where the file
+ * system supports POSIX permissions the file is created readable and writable by its owner only; elsewhere keep it in
+ * a directory only the service account can read.
+ */
+public class PendingLoginJournal implements AutoCloseable {
+
+    static final int RECORD_SIZE = 512;
+    static final Duration COMPACTION_INTERVAL = Duration.ofMinutes(1);
+    private static final byte EMPTY = 0;
+    private static final byte PENDING = 1;
+    private static final byte REMOVED = 2;
+    private static final int CRC_OFFSET = RECORD_SIZE - Integer.BYTES;
+    private static final Set<PosixFilePermission> OWNER_ONLY = EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+
+    private final Path file;
+    private final Clock clock;
+    private final Map<String, PendingLogin> pendingLogins = new LinkedHashMap<>();
+    private final CRC32 crc = new CRC32();
+    // held for a whole compaction, records are appended under the lock of the journal itself
+    private final Object compactionLock = new Object();
+    private final CRC32 compactionCrc = new CRC32();
+    private MappedByteBuffer records;
+    private int capacity;
+    private int nextRecord;
+    private boolean closed;
+
+    private PendingLoginJournal(Path file, int capacity, Clock clock) {
+        this.file = file;
+        this.capacity = capacity;
+        this.clock = clock;
+    }
+
+    /**
+     * @return journal that keeps nothing, for when logins don't need to survive a restart
+     */
+    public static PendingLoginJournal disabled() {
+        return new PendingLoginJournal(null, 0, Clock.systemUTC());
+    }
+
+    /**
+     * Opens the journal, creating it when missing, and replays it. Logins past their deadline are dropped.
+     *
+     * @param capacity initial number of records the file holds
+     */
+    public static PendingLoginJournal open(Path file, int capacity) throws IOException {
+        return open(file, capacity, Clock.systemUTC());
+    }
+
+    static PendingLoginJournal open(Path file, int capacity, Clock clock) throws IOException {
+        return open(file, capacity, clock, COMPACTION_INTERVAL);
+    }
+
+    static PendingLoginJournal open(Path file, int capacity, Clock clock, Duration compactionInterval) throws IOException {
+        var journal = new PendingLoginJournal(file, capacity, clock);
+        if (Files.exists(file)) {
+            journal.capacity = Math.max(capacity, (int) (Files.size(file) / RECORD_SIZE));
+        }
+        journal.records = map(file, journal.capacity);
+        journal.replay();
+        journal.compact();
+        journal.scheduleCompaction(compactionInterval);
+        return journal;
+    }
+
+    /**
+     * @return logins still pending, in the order they were first recorded
+     */
+    public synchronized List<PendingLogin> getPendingLogins() {
+        return new ArrayList<>(pendingLogins.values());
+    }
+
+    /**
+     * Stores the current state of a pending login.
+     */
+    public void record(PendingLogin pendingLogin) throws IOException {
+        if (file == null) {
+            return;
+        }
+        while (true) {
+            synchronized (this) {
+                if (nextRecord < capacity) {
+                    append(PENDING, pendingLogin);
+                    pendingLogins.put(pendingLogin.getId(), pendingLogin);
+                    return;
+                }
+            }
+            compactWhenFull();
+        }
+    }
+
+    /**
+     * Removes the pending login with the given id, once it is finished.
+     */
+    public void remove(String id) throws IOException {
+        if (file == null) {
+            return;
+        }
+        while (true) {
+            synchronized (this) {
+                if (nextRecord < capacity) {
+                    Optional.ofNullable(pendingLogins.remove(id)).ifPresent(removed -> append(REMOVED, removed));
+                    return;
+                }
+            }
+            compactWhenFull();
+        }
+    }
+
+    /**
+     * Rewrites the journal with live records only, growing it when they would take more than half of it.
+     */
+    public void compact() throws IOException {
+        if (file == null) {
+            return;
+        }
+        synchronized (compactionLock) {
+            List<PendingLogin> live;
+            int compactedCapacity;
+            int compactedUpTo;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                var now = clock.instant();
+                pendingLogins.values().removeIf(pendingLogin -> !pendingLogin.getDeadline().isAfter(now));
+                live = new ArrayList<>(pendingLogins.values());
+                compactedCapacity = capacity;
+                while (live.size() * 2 > compactedCapacity) {
+                    compactedCapacity *= 2;
+                }
+                compactedUpTo = nextRecord;
+            }
+
+            var compacted = file.resolveSibling(file.getFileName() + ".compacting");
+            Files.deleteIfExists(compacted);
+            var compactedRecords = map(compacted, compactedCapacity);
+            var slot = 0;
+            for (var pendingLogin : live) {
+                write(compactedRecords, compactionCrc, slot++, PENDING, pendingLogin);
+            }
+            compactedRecords.force();
+
+            synchronized (this) {
+                var appended = nextRecord - compactedUpTo;
+                if (closed || slot + appended > compactedCapacity) {
+                    // tried again next time, the records are still in the current file
+                    Files.deleteIfExists(compacted);
+                    return;
+                }
+                compactedRecords.put(slot * RECORD_SIZE, records, compactedUpTo * RECORD_SIZE, appended * RECORD_SIZE);
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                records = compactedRecords;
+                capacity = compactedCapacity;
+                nextRecord = slot + appended;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        MappedByteBuffer closedRecords;
+        synchronized (this) {
+            closed = true;
+            closedRecords = records;
+        }
+        if (closedRecords != null) {
+            closedRecords.force();
+        }
+    }
+
+    /**
+     * Compacts the journal unless another thread did while this one waited for it.
+     */
+    private void compactWhenFull() throws IOException {
+        synchronized (compactionLock) {
+            synchronized (this) {
+                if (nextRecord < capacity) {
+                    return;
+                }
+            }
+            compact();
+        }
+    }
+
+    /**
+     * Compacts the journal every {@code interval} until it is closed, which drops expired logins and keeps the part
+     * replayed on open short.
+     */
+    private void scheduleCompaction(Duration interval) {
+        CompletableFuture.delayedExecutor(interval.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            try {
+                compact();
+            } catch (IOException | RuntimeException e) {
+                // the records are still appended to the current file, compaction is tried again next time
+            }
+            scheduleCompaction(interval);
+        });
+    }
+
+    private void replay() {
+        var now = clock.instant();
+        for (nextRecord = 0; nextRecord < capacity; nextRecord++) {
+            var record = slice(records, nextRecord);
+            var type = record.get(0);
+            if (type == EMPTY || !hasValidCrc(record)) {
+                break;
+            }
+
+            record.position(1);
+            var pendingLogin = read(record);
+            if (type == PENDING && pendingLogin.getDeadline().isAfter(now)) {
+                pendingLogins.put(pendingLogin.getId(), pendingLogin);
+            } else {
+                pendingLogins.remove(pendingLogin.getId());
+            }
+        }
+    }
+
+    private void append(byte type, PendingLogin pendingLogin) {
+        write(records, crc, nextRecord, type, pendingLogin);
+        nextRecord++;
+    }
+
+    private static void write(MappedByteBuffer buffer, CRC32 crc, int slot, byte type, PendingLogin pendingLogin) {
+        var record = slice(buffer, slot);
+        try {
+            record.position(1);
+            record.put((byte) (int) pendingLogin.getLastStatus().map(status -> status.ordinal() + 1).orElse(0));
+            record.putLong(pendingLogin.getDeadline().toEpochMilli());
+            putString(record, pendingLogin.getId());
+            putString(record, pendingLogin.getUserId());
+            putString(record, pendingLogin.getStatusLink().getMethod());
+            putString(record, pendingLogin.getStatusLink().getUri());
+            putString(record, pendingLogin.getCookie().orElse(null));
+        } catch (BufferOverflowException e) {
+            throw new IllegalStateException("Pending login of user %s does not fit into a journal record".formatted(pendingLogin.getUserId()));
+        }
+        record.putInt(CRC_OFFSET, crc(crc, record));
+        // the type is written last, so a record is never seen before its content is complete
+        record.put(0, type);
+    }
+
+    private static PendingLogin read(ByteBuffer record) {
+        var status = record.get();
+        var deadline = Instant.ofEpochMilli(record.getLong());
+        var id = getString(record);
+        var userId = getString(record);
+        var statusLink = new Link(getString(record), getString(record));
+        return PendingLogin.builder()
+                .id(id)
+                .userId(userId)
+                .statusLink(statusLink)
+                .cookie(getString(record))
+                .deadline(deadline)
+                .lastStatus(status == 0 ? null : LoginStatus.values()[status - 1])
+                .build();
+    }
+
+    private boolean hasValidCrc(ByteBuffer record) {
+        return record.getInt(CRC_OFFSET) == crc(crc, record);
+    }
+
+    private static int crc(CRC32 crc, ByteBuffer record) {
+        crc.reset();
+        crc.update(record.slice(1, CRC_OFFSET - 1));
+        return (int) crc.getValue();
+    }
+
+    private static void putString(ByteBuffer record, String value) {
+        if (value == null) {
+            record.putShort((short) -1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (record.position() + Short.BYTES + bytes.length > CRC_OFFSET) {
+            throw new BufferOverflowException();
+        }
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    private static String getString(ByteBuffer record) {
+        var length = record.getShort();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer slice(MappedByteBuffer buffer, int slot) {
+        return buffer.slice(slot * RECORD_SIZE, RECORD_SIZE);
+    }
+
+    private static MappedByteBuffer map(Path file, int capacity) throws IOException {
+        var options = Set.of(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        var attributes = file.getFileSystem().supportedFileAttributeViews().contains("posix")
+                ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(OWNER_ONLY)}
+                : new FileAttribute<?>[0];
+        try (var channel = FileChannel.open(file, options, attributes)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        }
+    }
+}
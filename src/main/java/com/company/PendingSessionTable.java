@@ -0,0 +1,276 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Polling state of pending logins kept in primitive arrays instead of an object per login, so a poller can track
+ * millions of them with little garbage: last status as a byte ordinal, status checks made so far, and deadline and
+ * start of the current wait as {@link System#nanoTime()} values. Status links are interned, as every login polls one
+ * of a few of them, so a login only holds a reference to a shared {@link Link}. A login is addressed by an int handle;
+ * reading or updating it is O(1) and allocates and boxes nothing.
+ * <p>
+ * The table is split into stripes with a lock each. A login is added to the stripe of the adding thread and its handle
+ * tells the stripe, so logins updated from different threads rarely wait for each other. Handles of removed logins
+ * are reused through a free list per stripe.
+ */
+class PendingSessionTable {
+
+    private static final int STRIPE_BITS = 4;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+    private static final int MAX_INTERNED_LINKS = 1_024;
+    private static final byte FREE = 0;
+    private static final byte NO_STATUS = 1;
+    private static final LoginStatus[] STATUSES = LoginStatus.values();
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    // open addressing by hash code, a link is never removed once interned
+    private final AtomicReferenceArray<Link> internedLinks = new AtomicReferenceArray<>(MAX_INTERNED_LINKS * 2);
+    private final AtomicInteger internedLinkCount = new AtomicInteger();
+
+    /**
+     * @param initialCapacity logins the table holds before it grows, the table grows as needed
+     */
+    PendingSessionTable(int initialCapacity) {
+        var stripeCapacity = Math.max(1, initialCapacity / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(stripeCapacity);
+        }
+    }
+
+    /**
+     * Adds a login without a status yet.
+     *
+     * @param deadline {@link System#nanoTime()} after which the login is not polled any more
+     * @return handle of the login, valid until it is removed
+     */
+    int add(Link statusLink, long deadline) {
+        var link = intern(statusLink);
+        var stripeIndex = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+        var stripe = stripes[stripeIndex];
+        synchronized (stripe) {
+            var slot = stripe.allocate();
+            stripe.statuses[slot] = NO_STATUS;
+            stripe.attempts[slot] = 0;
+            stripe.deadlines[slot] = deadline;
+            stripe.waitStarts[slot] = 0;
+            stripe.links[slot] = link;
+            return slot << STRIPE_BITS | stripeIndex;
+        }
+    }
+
+    void remove(int handle) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            stripe.statuses[slot] = FREE;
+            stripe.links[slot] = null;
+            stripe.nextFree[slot] = stripe.firstFree;
+            stripe.firstFree = slot;
+            stripe.size--;
+        }
+    }
+
+    /**
+     * @return whether the handle belongs to a login that was not removed
+     */
+    boolean contains(int handle) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            return stripe.isUsed(slot);
+        }
+    }
+
+    int size() {
+        var size = 0;
+        for (var stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return last status seen for the login, {@code null} before the first one
+     */
+    LoginStatus getStatus(int handle) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            return decode(stripe.statuses[slot]);
+        }
+    }
+
+    /**
+     * @return status seen before this update, {@code null} for the first one
+     */
+    LoginStatus updateStatus(int handle, LoginStatus status) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            var previous = stripe.statuses[slot];
+            stripe.statuses[slot] = (byte) (status.ordinal() + 2);
+            return decode(previous);
+        }
+    }
+
+    int getAttempts(int handle) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            return stripe.attempts[slot];
+        }
+    }
+
+    /**
+     * @return status checks made for the login, including the one being started
+     */
+    int startAttempt(int handle) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            return ++stripe.attempts[slot];
+        }
+    }
+
+    long getDeadline(int handle) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            return stripe.deadlines[slot];
+        }
+    }
+
+    /**
+     * @return {@link System#nanoTime()} the wait before the next status check started at
+     */
+    long getWaitStart(int handle) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            return stripe.waitStarts[slot];
+        }
+    }
+
+    void startWait(int handle, long now) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            stripe.waitStarts[slot] = now;
+        }
+    }
+
+    /**
+     * @return the interned status link, the same instance for every login polling an equal link
+     */
+    Link getStatusLink(int handle) {
+        var stripe = stripe(handle);
+        var slot = slot(handle);
+        synchronized (stripe) {
+            stripe.check(slot, handle);
+            return stripe.links[slot];
+        }
+    }
+
+    /**
+     * Returns the interned instance of the link, without taking a lock once it is interned. Once
+     * {@link #MAX_INTERNED_LINKS} are interned, which only happens if logins don't share status links after all,
+     * further links are kept as given.
+     */
+    private Link intern(Link link) {
+        var mask = internedLinks.length() - 1;
+        for (int i = link.hashCode() & mask; ; i = (i + 1) & mask) {
+            var interned = internedLinks.get(i);
+            if (interned == null) {
+                if (internedLinkCount.get() >= MAX_INTERNED_LINKS) {
+                    return link;
+                }
+                if (internedLinks.compareAndSet(i, null, link)) {
+                    internedLinkCount.incrementAndGet();
+                    return link;
+                }
+                interned = internedLinks.get(i);
+            }
+            if (interned.equals(link)) {
+                return interned;
+            }
+        }
+    }
+
+    private Stripe stripe(int handle) {
+        return stripes[handle & (STRIPES - 1)];
+    }
+
+    private static int slot(int handle) {
+        return handle >>> STRIPE_BITS;
+    }
+
+    private static LoginStatus decode(byte status) {
+        return status == NO_STATUS ? null : STATUSES[status - 2];
+    }
+
+    private static class Stripe {
+        // FREE for unused slots, NO_STATUS before the first status, status ordinal + 2 after
+        private byte[] statuses;
+        private int[] attempts;
+        private long[] deadlines;
+        private long[] waitStarts;
+        private Link[] links;
+        private int[] nextFree;
+        private int firstFree = -1;
+        private int slotCount;
+        private int size;
+
+        private Stripe(int capacity) {
+            statuses = new byte[capacity];
+            attempts = new int[capacity];
+            deadlines = new long[capacity];
+            waitStarts = new long[capacity];
+            links = new Link[capacity];
+            nextFree = new int[capacity];
+        }
+
+        private int allocate() {
+            size++;
+            if (firstFree >= 0) {
+                var slot = firstFree;
+                firstFree = nextFree[slot];
+                return slot;
+            }
+            if (slotCount == statuses.length) {
+                var capacity = statuses.length * 2;
+                statuses = Arrays.copyOf(statuses, capacity);
+                attempts = Arrays.copyOf(attempts, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+                waitStarts = Arrays.copyOf(waitStarts, capacity);
+                links = Arrays.copyOf(links, capacity);
+                nextFree = Arrays.copyOf(nextFree, capacity);
+            }
+            return slotCount++;
+        }
+
+        private boolean isUsed(int slot) {
+            return slot < slotCount && statuses[slot] != FREE;
+        }
+
+        private void check(int slot, int handle) {
+            if (!isUsed(slot)) {
+                throw new IllegalStateException("No pending session with handle %d".formatted(handle));
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.company;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Builder
+@EqualsAndHashCode
+@ToString
+@Getter
+public class PollingPolicy {
+    @Builder.Default
+    private Duration interval = Duration.ofSeconds(1);
+    @Builder.Default
+    private double backoffMultiplier = 1.0;
+    @Builder.Default
+    private Duration maxInterval = Duration.ofSeconds(10);
+    @Builder.Default
+    private int maxAttempts = 10;
+    @Builder.Default
+    private Duration deadline = Duration.ofMinutes(3);
+
+    public static PollingPolicy defaultPolicy() {
+        return PollingPolicy.builder().build();
+    }
+
+    /**
+     * Longest time a login is polled for, not counting the time status requests take: the delays before all
+     * {@code maxAttempts} status checks, but no more than {@code deadline}.
+     */
+    public Duration getMaxDuration() {
+        var maxDuration = Duration.ZERO;
+        for (int attempt = 0; attempt < maxAttempts && maxDuration.compareTo(deadline) < 0; attempt++) {
+            maxDuration = maxDuration.plus(delayBeforeAttempt(attempt));
+        }
+        return maxDuration.compareTo(deadline) < 0 ? maxDuration : deadline;
+    }
+
+    /**
+     * Delay before the given (zero based) status check, growing by {@code backoffMultiplier} per attempt and capped
+     * by {@code maxInterval}.
+     */
+    public Duration delayBeforeAttempt(int attempt) {
+        var delayNanos = interval.toNanos() * Math.pow(backoffMultiplier, attempt);
+        return Duration.ofNanos((long) Math.min(delayNanos, maxInterval.toNanos()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.company;
+
+import com.company.beans.AdapterOperation;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Keeps requests of the underlying adapter within the bank's quota, with a separate {@link TokenBucket} per
+ * operation. A request over the quota is delayed until its permit is due, but fails right away with
+ * {@link IllegalStateException} when that would take longer than {@code maxWait}; {@link Duration#ZERO} therefore
+ * never delays. Operations without a bucket are not limited. Cancelling a delayed request before its permit is due
+ * keeps it from being sent, the permit is not given back.
+ */
+public class RateLimitingLoginAdapter implements AsyncLoginAdapter {
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final Map<AdapterOperation, TokenBucket> buckets;
+    private final long maxWaitNanos;
+
+    public RateLimitingLoginAdapter(AsyncLoginAdapter loginAdapter, Map<AdapterOperation, TokenBucket> buckets, Duration maxWait) {
+        this.loginAdapter = loginAdapter;
+        this.buckets = buckets.isEmpty() ? Map.of() : new EnumMap<>(buckets);
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        return throttle(AdapterOperation.IDENTIFICATION, loginAdapter::getAllLoginMethodsAsync);
+    }
+
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        return throttle(AdapterOperation.INITIATE, () -> loginAdapter.initiateLoginAsync(session, userId, method));
+    }
+
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        return throttle(AdapterOperation.STATUS, () -> loginAdapter.getLoginStatusAsync(session, link));
+    }
+
+    private <T> CompletableFuture<T> throttle(AdapterOperation operation, Supplier<CompletableFuture<T>> request) {
+        var bucket = buckets.get(operation);
+        if (bucket == null) {
+            return request.get();
+        }
+
+        var wait = bucket.reserve(maxWaitNanos);
+        if (wait < 0) {
+            return CompletableFuture.failedFuture(new IllegalStateException("%s rate limit exceeded".formatted(operation)));
+        }
+        if (wait == 0) {
+            return request.get();
+        }
+        var result = new CompletableFuture<T>();
+        CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS).execute(() -> {
+            // a caller that cancelled while waiting for its permit doesn't send the request
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<T> response;
+            try {
+                response = request.get();
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            Futures.propagateCancellation(response, result);
+            response.whenComplete((value, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(Futures.cause(error));
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        return result;
+    }
+}
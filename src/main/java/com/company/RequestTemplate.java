@@ -0,0 +1,55 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.RequestMethod;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link Link} resolved against the API base path: parsed {@link URI}, request method and static headers. Building
+ * a request from a template doesn't parse or compare strings.
+ */
+final class RequestTemplate {
+
+    private final URI uri;
+    private final RequestMethod method;
+    private final String[] headers;
+
+    private RequestTemplate(URI uri, RequestMethod method, String[] headers) {
+        this.uri = uri;
+        this.method = method;
+        this.headers = headers;
+    }
+
+    static RequestTemplate compile(String basePath, Link link, Map<String, String> headers) throws URISyntaxException {
+        var headerValues = headers.entrySet().stream()
+                .flatMap(header -> Stream.of(header.getKey(), header.getValue()))
+                .toArray(String[]::new);
+
+        return new RequestTemplate(new URI(basePath + link.getUri()), requestMethod(link.getMethod()), headerValues);
+    }
+
+    HttpRequest.Builder newRequest(Optional<HttpRequest.BodyPublisher> requestBody) {
+        var request = HttpRequest.newBuilder(uri).headers(headers);
+
+        return switch (method) {
+            case GET -> request.GET();
+            case POST -> request.POST(requestBody.orElse(HttpRequest.BodyPublishers.noBody()));
+        };
+    }
+
+    private static RequestMethod requestMethod(String method) {
+        for (var requestMethod : RequestMethod.values()) {
+            if (requestMethod.toString().equals(method)) {
+                return requestMethod;
+            }
+        }
+
+        throw new IllegalStateException("%s request method is not supported".formatted(method));
+    }
+}
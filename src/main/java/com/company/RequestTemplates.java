@@ -0,0 +1,40 @@
+package com.company;
+
+import com.company.beans.Link;
+
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of compiled {@link RequestTemplate}s keyed by {@link Link}. The bank uses the same few links for every login,
+ * including one status link shared by all of them, so the cache stays small and entries are never evicted. Should
+ * the bank ever hand out distinct links, those past {@code maxSize} are compiled per request instead of cached, so
+ * the templates of the shared links are kept.
+ */
+final class RequestTemplates {
+
+    private final String basePath;
+    private final Map<String, String> headers;
+    private final int maxSize;
+    private final Map<Link, RequestTemplate> templates = new ConcurrentHashMap<>();
+
+    RequestTemplates(String basePath, Map<String, String> headers, int maxSize) {
+        this.basePath = basePath;
+        this.headers = headers;
+        this.maxSize = maxSize;
+    }
+
+    RequestTemplate get(Link link) throws URISyntaxException {
+        var template = templates.get(link);
+        if (template != null) {
+            return template;
+        }
+
+        template = RequestTemplate.compile(basePath, link, headers);
+        if (templates.size() < maxSize) {
+            templates.putIfAbsent(link, template);
+        }
+        return template;
+    }
+}
@@ -0,0 +1,100 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards the underlying adapter with a {@link CircuitBreaker}: while it is open every call fails right away with
+ * {@link IllegalStateException}. Idempotent calls, fetching login methods and login status, are retried according
+ * to the {@link RetryPolicy}; login initiation is never retried, as that would start another login.
+ * <p>
+ * Only failures of the bank itself, transport errors, timeouts and 5xx responses, are retried and counted by the
+ * breaker. A 4xx response would fail the same way again, and a request shed by a local limit below this adapter
+ * says nothing about the bank; retrying those only adds load, so they are passed through as they are.
+ */
+public class ResilientLoginAdapter implements AsyncLoginAdapter {
+
+    private final AsyncLoginAdapter loginAdapter;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryPolicy retryPolicy;
+
+    public ResilientLoginAdapter(AsyncLoginAdapter loginAdapter, CircuitBreaker circuitBreaker, RetryPolicy retryPolicy) {
+        this.loginAdapter = loginAdapter;
+        this.circuitBreaker = circuitBreaker;
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        return withRetries(loginAdapter::getAllLoginMethodsAsync, 1);
+    }
+
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        return withCircuitBreaker(() -> loginAdapter.initiateLoginAsync(session, userId, method));
+    }
+
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        return withRetries(() -> loginAdapter.getLoginStatusAsync(session, link), 1);
+    }
+
+    private <T> CompletableFuture<T> withRetries(Supplier<CompletableFuture<T>> request, int attempt) {
+        return withCircuitBreaker(request).exceptionallyCompose(error -> {
+            var cause = Futures.cause(error);
+            if (attempt >= retryPolicy.getMaxAttempts() || !isBankFailure(cause)) {
+                return CompletableFuture.failedFuture(cause);
+            }
+
+            var delay = CompletableFuture.delayedExecutor(retryPolicy.delayBeforeRetry(attempt).toNanos(), TimeUnit.NANOSECONDS);
+            return CompletableFuture.supplyAsync(() -> withRetries(request, attempt + 1), delay).thenCompose(retry -> retry);
+        });
+    }
+
+    private <T> CompletableFuture<T> withCircuitBreaker(Supplier<CompletableFuture<T>> request) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(new CircuitOpenException());
+        }
+
+        CompletableFuture<T> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        return response.whenComplete((result, error) -> {
+            if (error == null) {
+                circuitBreaker.onSuccess();
+            } else if (isBankFailure(Futures.cause(error))) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onIgnored();
+            }
+        });
+    }
+
+    static boolean isBankFailure(Throwable error) {
+        return error instanceof IOException
+                || error instanceof UncheckedIOException
+                || error instanceof BankApiException bankError && bankError.isServerError();
+    }
+
+    private static class CircuitOpenException extends IllegalStateException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private CircuitOpenException() {
+            super("Bank API is unavailable, circuit breaker is open");
+        }
+    }
+}
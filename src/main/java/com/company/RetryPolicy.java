@@ -0,0 +1,35 @@
+package com.company;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Builder
+@EqualsAndHashCode
+@ToString
+@Getter
+public class RetryPolicy {
+    @Builder.Default
+    private int maxAttempts = 3;
+    @Builder.Default
+    private Duration baseDelay = Duration.ofMillis(100);
+    @Builder.Default
+    private Duration maxDelay = Duration.ofSeconds(2);
+
+    public static RetryPolicy defaultPolicy() {
+        return RetryPolicy.builder().build();
+    }
+
+    /**
+     * Delay before the given (one based) retry: exponential backoff capped by {@code maxDelay}, with full jitter so
+     * that clients failing together don't retry together.
+     */
+    public Duration delayBeforeRetry(int retry) {
+        var ceilingNanos = Math.min(baseDelay.toNanos() * Math.pow(2, retry - 1), maxDelay.toNanos());
+        return Duration.ofNanos((long) (ThreadLocalRandom.current().nextDouble() * ceilingNanos));
+    }
+}
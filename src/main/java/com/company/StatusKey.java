@@ -0,0 +1,14 @@
+package com.company;
+
+import com.company.beans.Link;
+
+/**
+ * Identifies the login a status request is made for. Every login polls the same status link, so the cookie is what
+ * tells logins apart. A session without a cookie is compared by identity, so it is never mixed up with another login.
+ */
+record StatusKey(Object login, Link link) {
+
+    static StatusKey of(LoginSession session, Link link) {
+        return new StatusKey(session.getCookie().<Object>map(cookie -> cookie).orElse(session), link);
+    }
+}
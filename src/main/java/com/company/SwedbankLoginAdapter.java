@@ -1,116 +1,238 @@
 package com.company;
 
+import com.company.beans.AdapterOperation;
 import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.ErrorMessages;
 import com.company.beans.FieldError;
 import com.company.beans.RequestMethod;
-import com.company.beans.dto.AuthenticationMethodsResponse;
 import com.company.beans.Link;
+import com.company.beans.Links;
 import com.company.beans.LoginStatus;
-import com.company.beans.dto.HttpException;
+import com.company.beans.dto.JsonCodecs;
+import com.company.beans.dto.JsonDecoder;
 import com.company.beans.dto.MobileBankIDRequest;
 import com.company.beans.dto.LoginInitiationResponse;
-import com.google.gson.Gson;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
+import com.company.metrics.LoginMetrics;
 
-import java.io.IOException;
-import java.net.URI;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.function.BiConsumer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-@AllArgsConstructor(access = AccessLevel.PACKAGE)
-public class SwedbankLoginAdapter implements LoginAdapter {
+public class SwedbankLoginAdapter implements AsyncLoginAdapter {
 
-    private static final String BASE_PATH = "https://online.swedbank.se/TDE_DAP_Portal_REST_WEB/api";
+    public static final String DEFAULT_BASE_PATH = "https://online.swedbank.se/TDE_DAP_Portal_REST_WEB/api";
+    private static final Map<String, String> HEADERS = Map.of(
+            "Authorization", "QjdkWkhRY1k3OFZSVno5bDoxNTkyMjI3MzYxNzA2",
+            "X-Client", "loginititatorapp",
+            "Content-Type", "application/json");
     private static final Link LOGIN_METHODS_LINK = Link.builder().method(RequestMethod.GET.toString()).uri("/v5/identification/").build();
-    private final Gson gson;
+    private static final int HTTP_NOT_MODIFIED = 304;
+    private static final int MAX_CACHED_REQUEST_TEMPLATES = 1_000;
     private final HttpClient httpClient;
+    private final HttpClientConfig clientConfig;
+    private final AtomicReference<EtaggedLoginMethods> loginMethods = new AtomicReference<>();
+    private final RequestTemplates requestTemplates;
+    private final LoginMetrics metrics;
 
     public SwedbankLoginAdapter() {
-        gson = new Gson();
-        httpClient = HttpClient.newHttpClient();
+        this(DEFAULT_BASE_PATH);
     }
 
-    private final Map<String, String> headers = new HashMap<>() {{
-        put("Authorization", "QjdkWkhRY1k3OFZSVno5bDoxNTkyMjI3MzYxNzA2");
-        put("X-Client", "loginititatorapp");
-        put("Content-Type", "application/json");
-    }};
+    /**
+     * @param basePath API root all links are resolved against, e.g. a local simulator instead of {@link #DEFAULT_BASE_PATH}
+     */
+    public SwedbankLoginAdapter(String basePath) {
+        this(basePath, new LoginMetrics());
+    }
 
-    @Override
-    public List<AuthenticationMethod> getAllLoginMethods() throws URISyntaxException, IOException, InterruptedException {
-        HttpResponse<String> response = performRequest(LOGIN_METHODS_LINK, Optional.empty());
+    /**
+     * @param metrics collects latencies, response codes and login status transitions of every request
+     */
+    public SwedbankLoginAdapter(String basePath, LoginMetrics metrics) {
+        this(HttpClientConfig.defaultConfig(), basePath, metrics);
+    }
 
-        return parseResponse(response, AuthenticationMethodsResponse.class).getAuthenticationMethods();
+    public SwedbankLoginAdapter(HttpClientConfig clientConfig, String basePath, LoginMetrics metrics) {
+        this(clientConfig.newHttpClient(), clientConfig, basePath, metrics);
     }
 
-    @Override
-    public LoginInitiationResponse initiateLogin(String userId, AuthenticationMethod method) throws URISyntaxException, IOException, InterruptedException {
-        var requestBody = gson.toJson(MobileBankIDRequest.builder().userId(userId).build());
+    SwedbankLoginAdapter(HttpClient httpClient) {
+        this(httpClient, DEFAULT_BASE_PATH, new LoginMetrics());
+    }
 
-        HttpResponse<String> response = performRequest(method.getLocation(), Optional.of(HttpRequest.BodyPublishers.ofString(requestBody)));
+    SwedbankLoginAdapter(HttpClient httpClient, String basePath, LoginMetrics metrics) {
+        this(httpClient, HttpClientConfig.defaultConfig(), basePath, metrics);
+    }
 
-        return parseResponse(response, LoginInitiationResponse.class);
+    SwedbankLoginAdapter(HttpClient httpClient, HttpClientConfig clientConfig, String basePath, LoginMetrics metrics) {
+        this.httpClient = httpClient;
+        this.clientConfig = clientConfig;
+        this.requestTemplates = new RequestTemplates(basePath, HEADERS, MAX_CACHED_REQUEST_TEMPLATES);
+        this.metrics = metrics;
     }
 
     @Override
-    public LoginStatus getLoginStatus(Link link) throws URISyntaxException, IOException, InterruptedException {
-        HttpResponse<String> response = performRequest(link, Optional.empty());
-
-        return parseResponse(response, LoginInitiationResponse.class).getStatus();
+    public CompletableFuture<AuthenticationMethodCatalog> getAllLoginMethodsAsync() {
+        var cachedMethods = loginMethods.get();
+
+        return performRequest(AdapterOperation.IDENTIFICATION, LOGIN_METHODS_LINK, Optional.empty(), Optional.empty(),
+                request -> Optional.ofNullable(cachedMethods).ifPresent(cached -> request.header("If-None-Match", cached.etag())))
+                .thenApply(response -> {
+                    if (cachedMethods != null && response.statusCode() == HTTP_NOT_MODIFIED) {
+                        return cachedMethods.methods();
+                    }
+
+                    var methods = AuthenticationMethodCatalog.of(parseResponse(response, JsonCodecs.AUTHENTICATION_METHODS_RESPONSE).getAuthenticationMethods());
+                    response.headers().firstValue("ETag")
+                            .ifPresent(etag -> loginMethods.set(new EtaggedLoginMethods(etag, methods)));
+                    return methods;
+                });
     }
 
-    private HttpResponse<String> performRequest(Link link, Optional<HttpRequest.BodyPublisher> requestBody) throws URISyntaxException, IOException, InterruptedException {
-        var request = HttpRequest.newBuilder().uri(new URI(BASE_PATH + link.getUri()));
-
-        headers.forEach(request::header);
-
-        requestMethodConsumer(link.getMethod()).accept(request, requestBody);
+    @Override
+    public CompletableFuture<LoginInitiationResponse> initiateLoginAsync(LoginSession session, String userId, AuthenticationMethod method) {
+        var requestBody = JsonCodecs.encode(MobileBankIDRequest.builder().userId(userId).build());
+
+        return performRequest(AdapterOperation.INITIATE, method.getLocation(), Optional.of(session), Optional.of(HttpRequest.BodyPublishers.ofByteArray(requestBody)))
+                .thenApply(response -> {
+                    var initiatedLogin = parseResponse(response, JsonCodecs.LOGIN_INITIATION_RESPONSE);
+                    recordStatus(session, initiatedLogin.getStatus());
+                    precompileNextLink(initiatedLogin);
+                    return initiatedLogin;
+                });
+    }
 
-        var response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    @Override
+    public CompletableFuture<LoginStatus> getLoginStatusAsync(LoginSession session, Link link) {
+        var pendingResponse = performRequest(AdapterOperation.STATUS, link, Optional.of(session), Optional.empty());
+        return Futures.propagateCancellation(pendingResponse, pendingResponse.thenApply(response -> {
+            var status = parseResponse(response, JsonCodecs.LOGIN_INITIATION_RESPONSE).getStatus();
+            recordStatus(session, status);
+            return status;
+        }));
+    }
 
-        updateSessionCookie(response);
+    private void recordStatus(LoginSession session, LoginStatus status) {
+        if (status == null) {
+            return;
+        }
+        var previous = session.updateStatus(status);
+        if (previous.filter(status::equals).isEmpty()) {
+            metrics.statusTransition(previous.orElse(null), status);
+        }
+    }
 
-        return response;
+    private void precompileNextLink(LoginInitiationResponse initiatedLogin) {
+        Optional.ofNullable(initiatedLogin.getLinks()).map(Links::getNext).ifPresent(next -> {
+            try {
+                requestTemplates.get(next);
+            } catch (URISyntaxException | IllegalStateException e) {
+                // reported when the link is used
+            }
+        });
     }
 
+    private CompletableFuture<HttpResponse<byte[]>> performRequest(AdapterOperation operation, Link link, Optional<LoginSession> session,
+                                                                   Optional<HttpRequest.BodyPublisher> requestBody) {
+        return performRequest(operation, link, session, requestBody, request -> {
+        });
+    }
 
-    private BiConsumer<HttpRequest.Builder, Optional<HttpRequest.BodyPublisher>> requestMethodConsumer(String method) {
-        if (RequestMethod.POST.toString().equals(method)) {
-            return (builder, body) -> builder.POST(body.orElse(HttpRequest.BodyPublishers.noBody()));
-        } else if (RequestMethod.GET.toString().equals(method)) {
-            return (builder, body) -> builder.GET();
+    private CompletableFuture<HttpResponse<byte[]>> performRequest(AdapterOperation operation, Link link, Optional<LoginSession> session,
+                                                                   Optional<HttpRequest.BodyPublisher> requestBody,
+                                                                   Consumer<HttpRequest.Builder> requestCustomizer) {
+        HttpRequest.Builder request;
+        try {
+            request = requestTemplates.get(link).newRequest(requestBody);
+        } catch (URISyntaxException | IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
         }
 
-        throw new IllegalStateException("%s request method is not supported".formatted(method));
+        session.flatMap(LoginSession::getCookie).ifPresent(cookie -> request.header("Cookie", cookie));
+        clientConfig.requestTimeout(operation).ifPresent(request::timeout);
+        requestCustomizer.accept(request);
+
+        var endpointMetrics = metrics.endpoint(operation);
+        var startNanos = endpointMetrics.started();
+        // cancelling the future returned by HttpClient aborts the exchange
+        var sent = httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        var received = sent
+                .whenComplete((response, e) -> {
+                    if (response != null) {
+                        endpointMetrics.completed(startNanos, response.statusCode());
+                    } else {
+                        endpointMetrics.failed(startNanos);
+                    }
+                })
+                .thenApply(response -> {
+                    session.filter(loginSession -> updateSessionCookie(loginSession, response))
+                            .ifPresent(loginSession -> metrics.cookieRefreshed());
+                    return response;
+                });
+        return Futures.propagateCancellation(sent, received);
     }
 
-    private void updateSessionCookie(HttpResponse<?> response) {
-        Optional.ofNullable(response.headers().map().get("set-cookie"))
+    /**
+     * @return whether the bank handed out a different session cookie
+     */
+    static boolean updateSessionCookie(LoginSession session, HttpResponse<?> response) {
+        var cookie = Optional.ofNullable(response.headers().map().get("set-cookie"))
                 .flatMap(setCookie -> setCookie.stream()
                         .flatMap(cookies -> Arrays.stream(cookies.split(";")))
-                        .filter(cookie -> cookie.contains("JSESSIONID"))
-                        .findAny()).ifPresent(cookie -> headers.put("Cookie", cookie));
+                        .filter(sessionCookie -> sessionCookie.contains("JSESSIONID"))
+                        .findAny());
+        if (cookie.isEmpty() || cookie.equals(session.getCookie())) {
+            return false;
+        }
+        session.updateCookie(cookie.get());
+        return true;
     }
 
-    private <T> T parseResponse(HttpResponse<String> response, Class<T> responseType) {
+    static <T> T parseResponse(HttpResponse<byte[]> response, JsonDecoder<T> decoder) {
         if (response.statusCode() >= 200 && response.statusCode() < 300) {
-            return gson.fromJson(response.body(), responseType);
+            return JsonCodecs.decode(response.body(), decoder);
         } else {
-            String errors = gson.fromJson(response.body(), HttpException.class).getErrorMessages().getFields()
-                    .stream().map(FieldError::getMessage).collect(Collectors.joining(", "));
+            throw new BankApiException(response.statusCode(), errorMessage(response));
+        }
+    }
 
-            throw new IllegalStateException(errors);
+    /**
+     * @return field errors the bank responded with, or a generic message when the body is in another format, e.g. a
+     * page of a proxy in front of the bank
+     */
+    private static String errorMessage(HttpResponse<byte[]> response) {
+        if (response.body() != null) {
+            try {
+                var errors = Optional.ofNullable(JsonCodecs.decode(response.body(), JsonCodecs.HTTP_EXCEPTION).getErrorMessages())
+                        .map(ErrorMessages::getFields)
+                        .orElse(List.of())
+                        .stream()
+                        .map(FieldError::getMessage)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.joining(", "));
+                if (!errors.isEmpty()) {
+                    return errors;
+                }
+            } catch (UncheckedIOException e) {
+                // not a JSON body, the status code is all there is
+            }
         }
+        return "Bank API responded with status %d".formatted(response.statusCode());
+    }
+
+    private record EtaggedLoginMethods(String etag, AuthenticationMethodCatalog methods) {
     }
 
 }
@@ -0,0 +1,64 @@
+package com.company;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket. Instead of counting tokens it keeps the time at which the bucket would be full again
+ * (generic cell rate algorithm), so acquiring a permit is a single compare-and-set.
+ */
+public class TokenBucket {
+
+    private final long permitIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong fullAt;
+
+    /**
+     * @param permitsPerSecond sustained rate
+     * @param burst            permits that can be taken at once after the bucket has been idle
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalStateException("Token bucket rate and burst must be positive");
+        }
+        this.permitIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.burstNanos = (burst - 1) * permitIntervalNanos;
+        this.nanoClock = nanoClock;
+        this.fullAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * @return whether a permit was taken without waiting
+     */
+    public boolean tryAcquire() {
+        return reserve(0) == 0;
+    }
+
+    /**
+     * Takes a permit that may only be used after the returned delay.
+     *
+     * @param maxWaitNanos longest acceptable delay
+     * @return nanoseconds to wait before using the permit, or {@code -1} when no permit was taken because the delay
+     * would exceed {@code maxWaitNanos}
+     */
+    public long reserve(long maxWaitNanos) {
+        while (true) {
+            var now = nanoClock.getAsLong();
+            var current = fullAt.get();
+            var start = current - now > 0 ? current : now;
+            var wait = Math.max(0, start - burstNanos - now);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (fullAt.compareAndSet(current, start + permitIntervalNanos)) {
+                return wait;
+            }
+        }
+    }
+}
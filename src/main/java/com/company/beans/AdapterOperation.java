@@ -0,0 +1,11 @@
+package com.company.beans;
+
+/**
+ * Bank API endpoints a login adapter talks to.
+ */
+public enum AdapterOperation {
+    IDENTIFICATION,
+    INITIATE,
+    STATUS,
+
+}
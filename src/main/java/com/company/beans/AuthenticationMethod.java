@@ -1,6 +1,5 @@
 package com.company.beans;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -10,7 +9,6 @@ import lombok.ToString;
 @EqualsAndHashCode
 @ToString
 @Getter
-@JsonIgnoreProperties(ignoreUnknown = true)
 public class AuthenticationMethod {
     private String message;
     private AuthenticationCode code;
@@ -0,0 +1,51 @@
+package com.company.beans;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable view of the authentication methods offered by the bank, indexed by {@link AuthenticationCode}. Built
+ * once per fetched catalog, so lookups by code don't scan the method list.
+ */
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString(onlyExplicitlyIncluded = true)
+@Getter
+public final class AuthenticationMethodCatalog {
+    @EqualsAndHashCode.Include
+    @ToString.Include
+    private final List<AuthenticationMethod> methods;
+    private final List<String> messages;
+    @Getter(AccessLevel.NONE)
+    private final Map<AuthenticationCode, AuthenticationMethod> methodsByCode;
+
+    private AuthenticationMethodCatalog(List<AuthenticationMethod> methods) {
+        this.methods = methods == null ? List.of() : List.copyOf(methods);
+        this.messages = this.methods.stream().map(AuthenticationMethod::getMessage).toList();
+
+        var methodsByCode = new EnumMap<AuthenticationCode, AuthenticationMethod>(AuthenticationCode.class);
+        this.methods.stream()
+                .filter(method -> method.getCode() != null)
+                .forEach(method -> methodsByCode.putIfAbsent(method.getCode(), method));
+        this.methodsByCode = Collections.unmodifiableMap(methodsByCode);
+    }
+
+    public static AuthenticationMethodCatalog of(List<AuthenticationMethod> methods) {
+        return new AuthenticationMethodCatalog(methods);
+    }
+
+    public Optional<AuthenticationMethod> find(AuthenticationCode code) {
+        return Optional.ofNullable(methodsByCode.get(code));
+    }
+
+    public AuthenticationMethod get(AuthenticationCode code) {
+        return find(code).orElseThrow(() -> new IllegalStateException("%s method is not available".formatted(code)));
+    }
+}
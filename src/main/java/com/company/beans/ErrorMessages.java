@@ -1,16 +1,18 @@
 package com.company.beans;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import java.util.List;
 
+@NoArgsConstructor
+@AllArgsConstructor
 @EqualsAndHashCode
 @ToString
 @Getter
-@JsonIgnoreProperties(ignoreUnknown = true)
 public class ErrorMessages {
     private List<FieldError> fields;
 }
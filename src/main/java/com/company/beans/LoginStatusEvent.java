@@ -0,0 +1,42 @@
+package com.company.beans;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Change of status of a login, as seen while polling it. The last event of a login is {@code finished}: either with a
+ * final status, or with the last status seen when polling timed out or failed.
+ */
+@Builder
+@EqualsAndHashCode
+@ToString
+@Getter
+public class LoginStatusEvent {
+    private long sessionId;
+    private Link statusLink;
+    private LoginStatus previousStatus;
+    private LoginStatus status;
+    private boolean finished;
+    private boolean timedOut;
+    private String error;
+    private Instant timestamp;
+
+    /**
+     * @return status before this change, empty for the first status seen
+     */
+    public Optional<LoginStatus> getPreviousStatus() {
+        return Optional.ofNullable(previousStatus);
+    }
+
+    /**
+     * @return why polling failed, empty unless the login finished without a final status
+     */
+    public Optional<String> getError() {
+        return Optional.ofNullable(error);
+    }
+}
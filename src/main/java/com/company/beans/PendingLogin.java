@@ -0,0 +1,34 @@
+package com.company.beans;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Login initiated at the bank whose final status is not known yet, with everything needed to keep polling it. The id
+ * tells logins apart, as every login polls the same status link.
+ */
+@Builder(toBuilder = true)
+@EqualsAndHashCode
+@ToString
+@Getter
+public class PendingLogin {
+    private String id;
+    private String userId;
+    private Link statusLink;
+    private String cookie;
+    private Instant deadline;
+    private LoginStatus lastStatus;
+
+    public Optional<String> getCookie() {
+        return Optional.ofNullable(cookie);
+    }
+
+    public Optional<LoginStatus> getLastStatus() {
+        return Optional.ofNullable(lastStatus);
+    }
+}
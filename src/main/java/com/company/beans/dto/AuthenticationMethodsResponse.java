@@ -1,18 +1,20 @@
 package com.company.beans.dto;
 
 import com.company.beans.AuthenticationMethod;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.ToString;
 
 import java.util.List;
 
 
+@NoArgsConstructor
+@AllArgsConstructor
 @EqualsAndHashCode
 @ToString
 @Getter
-@JsonIgnoreProperties(ignoreUnknown = true)
 public class AuthenticationMethodsResponse {
     private List<AuthenticationMethod> authenticationMethods;
 
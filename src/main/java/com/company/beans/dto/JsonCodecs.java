@@ -0,0 +1,229 @@
+package com.company.beans.dto;
+
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.ErrorMessages;
+import com.company.beans.FieldError;
+import com.company.beans.Link;
+import com.company.beans.Links;
+import com.company.beans.LoginStatus;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written streaming JSON codecs for the bank API DTOs. Bodies are read token by token straight from the
+ * response bytes, unknown fields are skipped without being materialized and no reflection is involved.
+ */
+public final class JsonCodecs {
+
+    public static final JsonDecoder<AuthenticationMethodsResponse> AUTHENTICATION_METHODS_RESPONSE = JsonCodecs::readAuthenticationMethodsResponse;
+    public static final JsonDecoder<LoginInitiationResponse> LOGIN_INITIATION_RESPONSE = JsonCodecs::readLoginInitiationResponse;
+    public static final JsonDecoder<HttpException> HTTP_EXCEPTION = JsonCodecs::readHttpException;
+
+    private JsonCodecs() {
+    }
+
+    public static <T> T decode(byte[] body, JsonDecoder<T> decoder) {
+        try (var reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            return decoder.read(reader);
+        } catch (IOException | IllegalStateException e) {
+            throw new UncheckedIOException(new IOException("Malformed response body", e));
+        }
+    }
+
+    public static byte[] encode(MobileBankIDRequest request) {
+        var body = new ByteArrayOutputStream(64);
+        try (var writer = new JsonWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("bankIdOnSameDevice").value(request.isBankIdOnSameDevice());
+            if (request.getUserId() != null) {
+                writer.name("userId").value(request.getUserId());
+            }
+            writer.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return body.toByteArray();
+    }
+
+    private static AuthenticationMethodsResponse readAuthenticationMethodsResponse(JsonReader reader) throws IOException {
+        List<AuthenticationMethod> authenticationMethods = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("authenticationMethods".equals(reader.nextName())) {
+                authenticationMethods = readList(reader, JsonCodecs::readAuthenticationMethod);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new AuthenticationMethodsResponse(authenticationMethods);
+    }
+
+    private static AuthenticationMethod readAuthenticationMethod(JsonReader reader) throws IOException {
+        var method = AuthenticationMethod.builder();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "message" -> method.message(readString(reader));
+                case "code" -> method.code(readEnum(reader, AuthenticationCode.class));
+                case "location" -> method.location(readNullable(reader, JsonCodecs::readLink));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return method.build();
+    }
+
+    private static LoginInitiationResponse readLoginInitiationResponse(JsonReader reader) throws IOException {
+        LoginStatus status = null;
+        Links links = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "status" -> status = readEnum(reader, LoginStatus.class);
+                case "links" -> links = readNullable(reader, JsonCodecs::readLinks);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new LoginInitiationResponse(status, links);
+    }
+
+    private static Links readLinks(JsonReader reader) throws IOException {
+        Link next = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("next".equals(reader.nextName())) {
+                next = readNullable(reader, JsonCodecs::readLink);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Links(next);
+    }
+
+    private static Link readLink(JsonReader reader) throws IOException {
+        var link = Link.builder();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "method" -> link.method(readString(reader));
+                case "uri" -> link.uri(readString(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return link.build();
+    }
+
+    private static HttpException readHttpException(JsonReader reader) throws IOException {
+        ErrorMessages errorMessages = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("errorMessages".equals(reader.nextName())) {
+                errorMessages = readNullable(reader, JsonCodecs::readErrorMessages);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new HttpException(errorMessages);
+    }
+
+    private static ErrorMessages readErrorMessages(JsonReader reader) throws IOException {
+        List<FieldError> fields = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("fields".equals(reader.nextName())) {
+                fields = readList(reader, JsonCodecs::readFieldError);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new ErrorMessages(fields);
+    }
+
+    private static FieldError readFieldError(JsonReader reader) throws IOException {
+        String message = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("message".equals(reader.nextName())) {
+                message = readString(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new FieldError(message);
+    }
+
+    private static <T> List<T> readList(JsonReader reader, JsonDecoder<T> elementDecoder) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+
+        var list = new ArrayList<T>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            list.add(readNullable(reader, elementDecoder));
+        }
+        reader.endArray();
+        return list;
+    }
+
+    private static <T> T readNullable(JsonReader reader, JsonDecoder<T> decoder) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return decoder.read(reader);
+    }
+
+    private static String readString(JsonReader reader) throws IOException {
+        return readNullable(reader, JsonReader::nextString);
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader reader, Class<E> enumType) throws IOException {
+        var name = readString(reader);
+        if (name == null) {
+            return null;
+        }
+
+        try {
+            return Enum.valueOf(enumType, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.company.beans.dto;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface JsonDecoder<T> {
+
+    T read(JsonReader reader) throws IOException;
+
+}
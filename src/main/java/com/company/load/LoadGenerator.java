@@ -0,0 +1,113 @@
+package com.company.load;
+
+import com.company.BatchLoginSummary;
+import com.company.BlockingLoginAdapter;
+import com.company.LoginAdapter;
+import com.company.LoginSession;
+import com.company.SwedbankLoginAdapter;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator. Logins (initiation followed by status checks) are started at a fixed arrival rate no
+ * matter how long earlier logins take, each on its own virtual thread. Every latency is measured from the moment the
+ * operation was supposed to start rather than when it actually started, which corrects for coordinated omission:
+ * when upstream slows down, the queueing delay shows up in the histograms instead of silently lowering the load.
+ */
+public class LoadGenerator {
+
+    private final LoginAdapter loginAdapter;
+    private final LoadGeneratorConfig config;
+
+    public LoadGenerator(LoginAdapter loginAdapter, LoadGeneratorConfig config) {
+        this.loginAdapter = loginAdapter;
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        var config = LoadGeneratorConfig.builder()
+                .arrivalRate(args.length > 0 ? Double.parseDouble(args[0]) : 100)
+                .duration(Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 60))
+                .build();
+        var basePath = System.getProperty("swedbank.base-path", SwedbankLoginAdapter.DEFAULT_BASE_PATH);
+
+        new LoadGenerator(new BlockingLoginAdapter(new SwedbankLoginAdapter(basePath)), config).run().print(System.out);
+    }
+
+    public LoadReport run() throws Exception {
+        var method = loginAdapter.getAllLoginMethods().get(config.getAuthenticationCode());
+        var report = new LoadReport();
+        var intervalNanos = (long) (1e9 / config.getArrivalRate());
+        var arrivals = (long) (config.getDuration().toNanos() / (double) intervalNanos);
+        var start = System.nanoTime();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long arrival = 0; arrival < arrivals; arrival++) {
+                var intendedStart = start + arrival * intervalNanos;
+                parkUntil(intendedStart);
+
+                var userId = "%012d".formatted(arrival);
+                executor.submit(() -> performLogin(report, userId, method, intendedStart));
+            }
+        }
+
+        report.setElapsed(Duration.ofNanos(System.nanoTime() - start));
+        return report;
+    }
+
+    private void performLogin(LoadReport report, String userId, AuthenticationMethod method, long intendedStart) {
+        try {
+            var session = new LoginSession();
+            var initiatedLogin = loginAdapter.initiateLogin(session, userId, method);
+            var now = System.nanoTime();
+            report.recordLatency(LoadReport.INITIATE, now - intendedStart);
+
+            var status = initiatedLogin.getStatus();
+            if (LoginStatus.CLIENT_NOT_STARTED.equals(status)) {
+                status = pollStatus(report, session, initiatedLogin.getLinks().getNext(), now);
+            }
+
+            var latency = System.nanoTime() - intendedStart;
+            report.recordLatency(LoadReport.LOGIN, latency);
+            report.recordOutcome(status == null ? BatchLoginSummary.TIMED_OUT : status.toString(), latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            report.recordOutcome(BatchLoginSummary.FAILED, System.nanoTime() - intendedStart);
+        }
+    }
+
+    /**
+     * @return final status, or {@code null} when the login is still pending after {@code maxPolls} checks
+     */
+    private LoginStatus pollStatus(LoadReport report, LoginSession session, Link link, long initiatedAt) throws Exception {
+        var intendedStart = initiatedAt;
+        for (int poll = 0; poll < config.getMaxPolls(); poll++) {
+            intendedStart += config.getPollInterval().toNanos();
+            parkUntil(intendedStart);
+
+            var status = loginAdapter.getLoginStatus(session, link);
+            report.recordLatency(LoadReport.STATUS, System.nanoTime() - intendedStart);
+
+            if (LoginStatus.COMPLETE.equals(status) || LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION.equals(status)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static void parkUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.company.load;
+
+import com.company.beans.AuthenticationCode;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Builder
+@EqualsAndHashCode
+@ToString
+@Getter
+public class LoadGeneratorConfig {
+    /**
+     * Logins started per second, independent of how fast upstream answers.
+     */
+    @Builder.Default
+    private double arrivalRate = 100;
+    @Builder.Default
+    private Duration duration = Duration.ofMinutes(1);
+    @Builder.Default
+    private AuthenticationCode authenticationCode = AuthenticationCode.BANKID_MOBILE;
+    @Builder.Default
+    private Duration pollInterval = Duration.ofSeconds(1);
+    @Builder.Default
+    private int maxPolls = 10;
+}
@@ -0,0 +1,81 @@
+package com.company.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms per operation and per login outcome collected by {@link LoadGenerator}. Latencies are recorded
+ * in nanoseconds from the intended start of an operation, or of the whole login for outcomes.
+ */
+public class LoadReport {
+
+    public static final String INITIATE = "initiate";
+    public static final String STATUS = "status";
+    public static final String LOGIN = "login";
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> outcomes = new ConcurrentHashMap<>();
+    private volatile Duration elapsed = Duration.ZERO;
+
+    void recordLatency(String operation, long latencyNanos) {
+        latencies.computeIfAbsent(operation, key -> new ConcurrentHistogram(3)).recordValue(Math.max(latencyNanos, 0));
+    }
+
+    void recordOutcome(String outcome, long latencyNanos) {
+        outcomes.computeIfAbsent(outcome, key -> new ConcurrentHistogram(3)).recordValue(Math.max(latencyNanos, 0));
+    }
+
+    void setElapsed(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public Histogram getLatencies(String operation) {
+        return latencies.getOrDefault(operation, new Histogram(3));
+    }
+
+    public Map<String, Long> getOutcomes() {
+        var counts = new TreeMap<String, Long>();
+        outcomes.forEach((outcome, histogram) -> counts.put(outcome, histogram.getTotalCount()));
+        return counts;
+    }
+
+    /**
+     * @return durations of logins that ended with the given outcome
+     */
+    public Histogram getOutcomeLatencies(String outcome) {
+        return outcomes.getOrDefault(outcome, new Histogram(3));
+    }
+
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    public void print(PrintStream printStream) {
+        var seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+
+        printStream.println("%-10s %10s %10s %10s %10s %10s %10s".formatted("operation", "count", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        new TreeMap<>(latencies).forEach((operation, histogram) -> printStream.println("%-10s %s".formatted(operation, row(histogram, seconds))));
+
+        printStream.println();
+        printStream.println("%-40s %10s %10s %10s %10s %10s %10s".formatted("outcome", "count", "per s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        new TreeMap<>(outcomes).forEach((outcome, histogram) -> printStream.println("%-40s %s".formatted(outcome, row(histogram, seconds))));
+    }
+
+    private static String row(Histogram histogram, double seconds) {
+        return "%10d %10.1f %10.2f %10.2f %10.2f %10.2f".formatted(
+                histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,14 @@
+package com.company.metrics;
+
+public interface BulkheadMetricsMXBean {
+
+    int getMaxConcurrent();
+
+    int getActive();
+
+    int getQueued();
+
+    long getCompleted();
+
+    long getRejected();
+}
@@ -0,0 +1,101 @@
+package com.company.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request metrics of a single bank API endpoint. Recording is wait-free so it can stay on the request path; the
+ * latency histogram is folded into a cumulative one only when it is read.
+ */
+public class EndpointMetrics implements EndpointMetricsMXBean {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Recorder latencyRecorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram latencies = new Histogram(SIGNIFICANT_DIGITS);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    /**
+     * @return start timestamp to pass to {@link #completed} or {@link #failed}
+     */
+    public long started() {
+        inFlight.increment();
+        return System.nanoTime();
+    }
+
+    public void completed(long startNanos, int statusCode) {
+        finished(startNanos);
+        statusCodes.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a request that ended without an HTTP response.
+     */
+    public void failed(long startNanos) {
+        finished(startNanos);
+        failures.increment();
+    }
+
+    private void finished(long startNanos) {
+        latencyRecorder.recordValue(System.nanoTime() - startNanos);
+        requests.increment();
+        inFlight.decrement();
+    }
+
+    @Override
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+
+    @Override
+    public double getLatencyP50Millis() {
+        return latencyAtPercentile(50);
+    }
+
+    @Override
+    public double getLatencyP99Millis() {
+        return latencyAtPercentile(99);
+    }
+
+    @Override
+    public double getLatencyP999Millis() {
+        return latencyAtPercentile(99.9);
+    }
+
+    @Override
+    public double getLatencyMaxMillis() {
+        return latencyAtPercentile(100);
+    }
+
+    @Override
+    public Map<String, Long> getStatusCodes() {
+        var counts = new TreeMap<String, Long>();
+        statusCodes.forEach((code, count) -> counts.put(String.valueOf(code), count.sum()));
+        return counts;
+    }
+
+    private synchronized double latencyAtPercentile(double percentile) {
+        latencies.add(latencyRecorder.getIntervalHistogram());
+        return latencies.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+}
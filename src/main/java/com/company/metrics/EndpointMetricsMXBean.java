@@ -0,0 +1,25 @@
+package com.company.metrics;
+
+import java.util.Map;
+
+public interface EndpointMetricsMXBean {
+
+    long getRequests();
+
+    long getFailures();
+
+    long getInFlight();
+
+    double getLatencyP50Millis();
+
+    double getLatencyP99Millis();
+
+    double getLatencyP999Millis();
+
+    double getLatencyMaxMillis();
+
+    /**
+     * @return number of responses per HTTP status code
+     */
+    Map<String, Long> getStatusCodes();
+}
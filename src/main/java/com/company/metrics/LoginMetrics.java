@@ -0,0 +1,112 @@
+package com.company.metrics;
+
+import com.company.beans.AdapterOperation;
+import com.company.beans.LoginStatus;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Instrumentation of the bank API: per endpoint request metrics plus session level counters. Published as MBeans
+ * under the {@value #DOMAIN} domain.
+ */
+public class LoginMetrics implements LoginMetricsMXBean {
+
+    static final String DOMAIN = "com.company";
+    private static final String NEW_LOGIN = "NEW";
+
+    private final Map<AdapterOperation, EndpointMetrics> endpoints = new EnumMap<>(AdapterOperation.class);
+    private final LongAdder cookieRefreshes = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    // indexed by [previous status ordinal + 1][status ordinal], row 0 counts fresh logins
+    private final LongAdder[][] statusTransitions = new LongAdder[LoginStatus.values().length + 1][LoginStatus.values().length];
+
+    public LoginMetrics() {
+        for (var operation : AdapterOperation.values()) {
+            endpoints.put(operation, new EndpointMetrics());
+        }
+        for (var row : statusTransitions) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = new LongAdder();
+            }
+        }
+    }
+
+    public EndpointMetrics endpoint(AdapterOperation operation) {
+        return endpoints.get(operation);
+    }
+
+    public void cookieRefreshed() {
+        cookieRefreshes.increment();
+    }
+
+    public void hedgeSent() {
+        hedgesSent.increment();
+    }
+
+    public void hedgeWon() {
+        hedgesWon.increment();
+    }
+
+    /**
+     * @param previous status seen before, {@code null} for a freshly initiated login
+     */
+    public void statusTransition(LoginStatus previous, LoginStatus status) {
+        statusTransitions[previous == null ? 0 : previous.ordinal() + 1][status.ordinal()].increment();
+    }
+
+    @Override
+    public long getCookieRefreshes() {
+        return cookieRefreshes.sum();
+    }
+
+    @Override
+    public long getHedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    @Override
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    @Override
+    public Map<String, Long> getStatusTransitions() {
+        var counts = new TreeMap<String, Long>();
+        for (int from = 0; from < statusTransitions.length; from++) {
+            var previous = from == 0 ? NEW_LOGIN : LoginStatus.values()[from - 1].name();
+            for (var status : LoginStatus.values()) {
+                var count = statusTransitions[from][status.ordinal()].sum();
+                if (count > 0) {
+                    counts.put(previous + "->" + status, count);
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Registers these metrics, replacing any earlier registration under the same names.
+     */
+    public void register(MBeanServer mBeanServer) throws JMException {
+        registerReplacing(mBeanServer, this, new ObjectName(DOMAIN, "type", "LoginMetrics"));
+        for (var endpoint : endpoints.entrySet()) {
+            var name = new ObjectName(DOMAIN + ":type=EndpointMetrics,endpoint=" + endpoint.getKey().name().toLowerCase(Locale.ROOT));
+            registerReplacing(mBeanServer, endpoint.getValue(), name);
+        }
+    }
+
+    private static void registerReplacing(MBeanServer mBeanServer, Object mBean, ObjectName name) throws JMException {
+        if (mBeanServer.isRegistered(name)) {
+            mBeanServer.unregisterMBean(name);
+        }
+        mBeanServer.registerMBean(mBean, name);
+    }
+}
@@ -0,0 +1,20 @@
+package com.company.metrics;
+
+import java.util.Map;
+
+public interface LoginMetricsMXBean {
+
+    long getCookieRefreshes();
+
+    long getHedgesSent();
+
+    /**
+     * @return hedged requests that answered before the request they were hedging
+     */
+    long getHedgesWon();
+
+    /**
+     * @return number of observed login status changes keyed by {@code FROM->TO}, {@code NEW} being a fresh login
+     */
+    Map<String, Long> getStatusTransitions();
+}
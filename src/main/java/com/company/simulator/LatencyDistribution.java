@@ -0,0 +1,29 @@
+package com.company.simulator;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Source of simulated response latencies.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    Duration next(RandomGenerator random);
+
+    static LatencyDistribution fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        return random -> Duration.ofNanos(random.nextLong(min.toNanos(), max.toNanos() + 1));
+    }
+
+    /**
+     * Long-tailed distribution typical for remote calls: half of the latencies are below {@code median}, and
+     * {@code sigma} controls the tail (0.5 puts p99 at about 3.2 times the median).
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        return random -> Duration.ofNanos((long) (median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+    }
+}
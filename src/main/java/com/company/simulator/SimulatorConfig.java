@@ -0,0 +1,35 @@
+package com.company.simulator;
+
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Builder
+@EqualsAndHashCode
+@ToString
+@Getter
+public class SimulatorConfig {
+    @Builder.Default
+    private LatencyDistribution latency = LatencyDistribution.logNormal(Duration.ofMillis(80), 0.5);
+    @Builder.Default
+    private double errorRate = 0.0;
+    /**
+     * Number of status checks answered with {@code CLIENT_NOT_STARTED} before the user opens the BankID app.
+     */
+    @Builder.Default
+    private int clientNotStartedPolls = 2;
+    /**
+     * Number of status checks answered with {@code OUTSTANDING_TRANSACTION} before the login is {@code COMPLETE}.
+     */
+    @Builder.Default
+    private int outstandingTransactionPolls = 3;
+    /**
+     * Time after initiation a login is forgotten when it is not polled to a final status, like the bank expires
+     * abandoned BankID orders.
+     */
+    @Builder.Default
+    private Duration loginTtl = Duration.ofMinutes(3);
+}
@@ -0,0 +1,219 @@
+package com.company.simulator;
+
+import com.company.beans.LoginStatus;
+import com.google.gson.stream.JsonReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Swedbank identification API, for load and latency testing. Serves the methods catalog,
+ * mobile BankID initiation and the status endpoint with {@code JSESSIONID} cookies. Each login moves through
+ * {@code CLIENT_NOT_STARTED -> OUTSTANDING_TRANSACTION -> COMPLETE}, and a new initiation for the same user cancels
+ * the previous one. Logins not polled to a final status are forgotten after their TTL. Latency, error rate and TTL
+ * come from {@link SimulatorConfig}.
+ */
+public class SwedbankApiSimulator implements AutoCloseable {
+
+    public static final String API_PATH = "/TDE_DAP_Portal_REST_WEB/api";
+    private static final String IDENTIFICATION_PATH = API_PATH + "/v5/identification/";
+    private static final String MOBILE_BANK_ID_PATH = IDENTIFICATION_PATH + "bankid/mobile";
+    private static final String STATUS_PATH = MOBILE_BANK_ID_PATH + "/verify";
+    private static final String COOKIE_NAME = "JSESSIONID";
+    private static final String METHODS_BODY = """
+            {"authenticationMethods":[\
+            {"message":"Security token for corporate customers","code":"SECURITY_TOKEN_CORP","location":{"method":"POST","uri":"/v5/identification/securitytoken/corporate"}},\
+            {"message":"BankID on card","code":"BANKID_CARD","location":{"method":"POST","uri":"/v5/identification/bankid/card"}},\
+            {"message":"Security token","code":"SECURITY_TOKEN","location":{"method":"POST","uri":"/v5/identification/securitytoken"}},\
+            {"message":"Mobile BankID","code":"BANKID_MOBILE","location":{"method":"POST","uri":"/v5/identification/bankid/mobile"}}]}""";
+    private static final String LOGIN_BODY = """
+            {"status":"%s","links":{"next":{"method":"GET","uri":"/v5/identification/bankid/mobile/verify"}}}""";
+    private static final String ERROR_BODY = """
+            {"errorMessages":{"general":[],"fields":[{"message":"%s"}]}}""";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SimulatorConfig config;
+    private final Map<String, SimulatedLogin> logins = new ConcurrentHashMap<>();
+    private final Map<String, SimulatedLogin> loginsByUser = new ConcurrentHashMap<>();
+
+    private SwedbankApiSimulator(HttpServer server, ExecutorService executor, SimulatorConfig config) {
+        this.server = server;
+        this.executor = executor;
+        this.config = config;
+    }
+
+    /**
+     * Starts the simulator on the given port of the loopback interface, 0 picks a free port.
+     */
+    public static SwedbankApiSimulator start(int port, SimulatorConfig config) throws IOException {
+        var server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        var executor = Executors.newVirtualThreadPerTaskExecutor();
+        var simulator = new SwedbankApiSimulator(server, executor, config);
+
+        server.createContext(API_PATH, simulator::handle);
+        server.setExecutor(executor);
+        server.start();
+        return simulator;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        var simulator = start(port, SimulatorConfig.builder().build());
+        System.out.println("Simulator is listening, use -Dswedbank.base-path=" + simulator.getBasePath());
+    }
+
+    public String getBasePath() {
+        return "http://127.0.0.1:%d%s".formatted(server.getAddress().getPort(), API_PATH);
+    }
+
+    /**
+     * Number of logins which are initiated but not yet completed or cancelled.
+     */
+    public int getPendingLogins() {
+        return logins.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Thread.sleep(config.getLatency().next(ThreadLocalRandom.current()));
+
+            if (ThreadLocalRandom.current().nextDouble() < config.getErrorRate()) {
+                respond(exchange, 503, ERROR_BODY.formatted("Service is temporarily unavailable"));
+                return;
+            }
+
+            var path = exchange.getRequestURI().getPath();
+            var method = exchange.getRequestMethod();
+            if ("GET".equals(method) && IDENTIFICATION_PATH.equals(path)) {
+                respond(exchange, 200, METHODS_BODY);
+            } else if ("POST".equals(method) && MOBILE_BANK_ID_PATH.equals(path)) {
+                initiateLogin(exchange);
+            } else if ("GET".equals(method) && STATUS_PATH.equals(path)) {
+                getLoginStatus(exchange);
+            } else {
+                respond(exchange, 404, ERROR_BODY.formatted("Not found"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void initiateLogin(HttpExchange exchange) throws IOException {
+        var userId = readUserId(exchange);
+        if (userId.isEmpty()) {
+            respond(exchange, 400, ERROR_BODY.formatted("User id is missing"));
+            return;
+        }
+
+        var login = new SimulatedLogin(UUID.randomUUID().toString(), userId.get());
+        logins.put(login.sessionId, login);
+        Optional.ofNullable(loginsByUser.put(login.userId, login)).ifPresent(previous -> previous.cancelled.set(true));
+        CompletableFuture.delayedExecutor(config.getLoginTtl().toNanos(), TimeUnit.NANOSECONDS).execute(() -> forget(login));
+
+        exchange.getResponseHeaders().add("Set-Cookie", "%s=%s; Path=/; Secure; HttpOnly".formatted(COOKIE_NAME, login.sessionId));
+        respond(exchange, 200, LOGIN_BODY.formatted(LoginStatus.CLIENT_NOT_STARTED));
+    }
+
+    private void getLoginStatus(HttpExchange exchange) throws IOException {
+        var login = readSessionId(exchange).map(logins::get);
+        if (login.isEmpty()) {
+            respond(exchange, 401, ERROR_BODY.formatted("Session is not valid"));
+            return;
+        }
+
+        var status = login.get().nextStatus(config);
+        if (status == LoginStatus.COMPLETE || status == LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION) {
+            forget(login.get());
+        }
+        respond(exchange, 200, LOGIN_BODY.formatted(status));
+    }
+
+    private void forget(SimulatedLogin login) {
+        logins.remove(login.sessionId, login);
+        loginsByUser.remove(login.userId, login);
+    }
+
+    private static Optional<String> readUserId(HttpExchange exchange) throws IOException {
+        try (var reader = new JsonReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String userId = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("userId".equals(reader.nextName())) {
+                    userId = reader.nextString();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return Optional.ofNullable(userId).filter(id -> !id.isBlank());
+        } catch (IOException | IllegalStateException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<String> readSessionId(HttpExchange exchange) {
+        return exchange.getRequestHeaders().getOrDefault("Cookie", List.of()).stream()
+                .flatMap(cookies -> Arrays.stream(cookies.split(";")))
+                .map(String::trim)
+                .filter(cookie -> cookie.startsWith(COOKIE_NAME + "="))
+                .map(cookie -> cookie.substring(COOKIE_NAME.length() + 1))
+                .findAny();
+    }
+
+    private static void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static class SimulatedLogin {
+        private final String sessionId;
+        private final String userId;
+        private final AtomicInteger statusChecks = new AtomicInteger();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        private SimulatedLogin(String sessionId, String userId) {
+            this.sessionId = sessionId;
+            this.userId = userId;
+        }
+
+        private LoginStatus nextStatus(SimulatorConfig config) {
+            if (cancelled.get()) {
+                return LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION;
+            }
+
+            var check = statusChecks.incrementAndGet();
+            if (check <= config.getClientNotStartedPolls()) {
+                return LoginStatus.CLIENT_NOT_STARTED;
+            } else if (check <= config.getClientNotStartedPolls() + config.getOutstandingTransactionPolls()) {
+                return LoginStatus.OUTSTANDING_TRANSACTION;
+            }
+            return LoginStatus.COMPLETE;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.company.tracing;
+
+/**
+ * Finished stage of a traced login.
+ *
+ * @param startNanos {@link System#nanoTime()} when the stage started
+ * @param detail     optional free text shown with the span, e.g. the login outcome
+ */
+public record Span(long traceId, String name, long startNanos, long durationNanos, String detail) {
+}
@@ -0,0 +1,79 @@
+package com.company.tracing;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Timeline of a single login. A trace that was sampled out ignores everything recorded into it, so instrumented code
+ * does not need to check {@link #isSampled()} itself.
+ */
+public class Trace {
+
+    public static final Trace NOOP = new Trace(null, 0);
+    private static final ActiveSpan NOOP_SPAN = new ActiveSpan(NOOP, null, 0);
+
+    private final TraceRecorder recorder;
+    private final long traceId;
+
+    Trace(TraceRecorder recorder, long traceId) {
+        this.recorder = recorder;
+        this.traceId = traceId;
+    }
+
+    public boolean isSampled() {
+        return recorder != null;
+    }
+
+    /**
+     * Starts a span that is recorded when closed.
+     */
+    public ActiveSpan startSpan(String name) {
+        return isSampled() ? new ActiveSpan(this, name, System.nanoTime()) : NOOP_SPAN;
+    }
+
+    /**
+     * Runs a stage in a span, which is recorded once the stage returns or throws.
+     */
+    public <T> T inSpan(String name, Callable<T> stage) throws Exception {
+        var span = startSpan(name);
+        try {
+            return stage.call();
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Records a stage whose start and end are already known, e.g. a wait measured across threads.
+     */
+    public void recordSpan(String name, long startNanos, long endNanos) {
+        recordSpan(name, startNanos, endNanos, null);
+    }
+
+    private void recordSpan(String name, long startNanos, long endNanos, String detail) {
+        if (isSampled()) {
+            recorder.record(new Span(traceId, name, startNanos, endNanos - startNanos, detail));
+        }
+    }
+
+    public static class ActiveSpan implements AutoCloseable {
+        private final Trace trace;
+        private final String name;
+        private final long startNanos;
+        private String detail;
+
+        private ActiveSpan(Trace trace, String name, long startNanos) {
+            this.trace = trace;
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+
+        public void detail(String detail) {
+            this.detail = detail;
+        }
+
+        @Override
+        public void close() {
+            trace.recordSpan(name, startNanos, System.nanoTime(), detail);
+        }
+    }
+}
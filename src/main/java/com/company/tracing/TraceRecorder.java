@@ -0,0 +1,109 @@
+package com.company.tracing;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the latest spans of sampled logins in a fixed size ring buffer, older spans are overwritten. Whether a login
+ * is traced is decided once per login, so a sampled out login costs a single random draw.
+ */
+public class TraceRecorder {
+
+    private static final double NANOS_PER_MICRO = TimeUnit.MICROSECONDS.toNanos(1);
+
+    private final AtomicReferenceArray<Span> spans;
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final AtomicLong traceIds = new AtomicLong();
+    private final double sampleRate;
+    private final long epochNanos = System.nanoTime();
+
+    /**
+     * @param capacity   number of latest spans kept
+     * @param sampleRate share of logins traced, from 0 to 1
+     */
+    public TraceRecorder(int capacity, double sampleRate) {
+        if (capacity < 1 || sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalStateException("Trace capacity must be positive and sample rate between 0 and 1");
+        }
+        this.spans = new AtomicReferenceArray<>(capacity);
+        this.sampleRate = sampleRate;
+    }
+
+    public static TraceRecorder disabled() {
+        return new TraceRecorder(1, 0);
+    }
+
+    public Trace startTrace() {
+        if (sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return Trace.NOOP;
+        }
+        return new Trace(this, traceIds.incrementAndGet());
+    }
+
+    void record(Span span) {
+        spans.set((int) (nextSlot.getAndIncrement() % spans.length()), span);
+    }
+
+    /**
+     * @return spans still in the buffer ordered by start time
+     */
+    public List<Span> getSpans() {
+        var recorded = new ArrayList<Span>(spans.length());
+        for (int i = 0; i < spans.length(); i++) {
+            recorded.add(spans.get(i));
+        }
+        recorded.removeIf(Objects::isNull);
+        recorded.sort(Comparator.comparingLong(Span::startNanos));
+        return recorded;
+    }
+
+    /**
+     * Writes recorded spans in Chrome trace event format, every login on its own row, so it can be opened in
+     * chrome://tracing or Perfetto.
+     */
+    public void exportChromeTrace(Writer writer) throws IOException {
+        var recorded = getSpans();
+        var json = new JsonWriter(writer);
+        json.beginObject().name("traceEvents").beginArray();
+
+        var traceIds = new LinkedHashSet<Long>();
+        recorded.forEach(span -> traceIds.add(span.traceId()));
+        for (var traceId : traceIds) {
+            json.beginObject()
+                    .name("name").value("thread_name")
+                    .name("ph").value("M")
+                    .name("pid").value(1)
+                    .name("tid").value(traceId)
+                    .name("args").beginObject().name("name").value("login " + traceId).endObject()
+                    .endObject();
+        }
+        for (var span : recorded) {
+            json.beginObject()
+                    .name("name").value(span.name())
+                    .name("cat").value("login")
+                    .name("ph").value("X")
+                    .name("ts").value((span.startNanos() - epochNanos) / NANOS_PER_MICRO)
+                    .name("dur").value(span.durationNanos() / NANOS_PER_MICRO)
+                    .name("pid").value(1)
+                    .name("tid").value(span.traceId());
+            if (span.detail() != null) {
+                json.name("args").beginObject().name("detail").value(span.detail()).endObject();
+            }
+            json.endObject();
+        }
+
+        json.endArray().endObject();
+        json.flush();
+    }
+}
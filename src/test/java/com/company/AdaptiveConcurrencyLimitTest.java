@@ -0,0 +1,57 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long RTT = 10_000_000;
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 12);
+
+    @Test
+    public void onSample_shouldGrowLimit_whileLatencyStaysAtMinimum() {
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(RTT, limit.getLimit(), false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(12);
+    }
+
+    @Test
+    public void onSample_shouldNotGrowLimit_whenItIsNotUsed() {
+        limit.onSample(RTT, 1, false);
+        limit.onSample(RTT, 1, false);
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void onSample_shouldShrinkLimit_whenLatencyGrows() {
+        limit.onSample(RTT, 10, false);
+        var grown = limit.getLimit();
+
+        limit.onSample(4 * RTT, 10, false);
+
+        assertThat(limit.getLimit()).isEqualTo(grown - 1);
+    }
+
+    @Test
+    public void onSample_shouldBackOffMultiplicatively_downToMinimum_whenRequestsFail() {
+        limit.onSample(RTT, 10, true);
+        assertThat(limit.getLimit()).isEqualTo(9);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(RTT, 10, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void constructor_shouldRejectInitialLimitAboveMaximum() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(20, 1, 10))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
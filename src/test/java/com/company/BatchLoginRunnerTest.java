@@ -0,0 +1,87 @@
+package com.company;
+
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.Links;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BatchLoginRunnerTest {
+
+    private static final AuthenticationMethod BANK_ID = AuthenticationMethod.builder().code(AuthenticationCode.BANKID_MOBILE).build();
+    private static final Link COMPLETING_LINK = new Link("GET", "/complete");
+    private static final Link TIMING_OUT_LINK = new Link("GET", "/timeout");
+
+    @Mock
+    private LoginAdapter loginAdapter;
+    @Mock
+    private LoginStatusPoller statusPoller;
+
+    private BatchLoginRunner batchRunner;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        batchRunner = new BatchLoginRunner(loginAdapter, statusPoller, 2);
+        when(loginAdapter.getAllLoginMethods()).thenReturn(AuthenticationMethodCatalog.of(List.of(BANK_ID)));
+        lenient().when(statusPoller.poll(any(), eq(COMPLETING_LINK), any())).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+        lenient().when(statusPoller.poll(any(), eq(TIMING_OUT_LINK), any())).thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+    }
+
+    @Test
+    public void run_shouldSummarizeOutcomes_ofAllLogins() throws Exception {
+        mockInitiation("complete-1", LoginStatus.CLIENT_NOT_STARTED, COMPLETING_LINK);
+        mockInitiation("complete-2", LoginStatus.CLIENT_NOT_STARTED, COMPLETING_LINK);
+        mockInitiation("timeout", LoginStatus.CLIENT_NOT_STARTED, TIMING_OUT_LINK);
+        mockInitiation("cancelled", LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION, COMPLETING_LINK);
+        when(loginAdapter.initiateLogin(any(), eq("failed"), eq(BANK_ID))).thenThrow(new IllegalStateException());
+
+        var summary = batchRunner.run(List.of("complete-1", "complete-2", "timeout", "cancelled", "failed"));
+
+        assertThat(summary.getCounts()).isEqualTo(Map.of(
+                LoginStatus.COMPLETE.toString(), 2L,
+                LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION.toString(), 1L,
+                BatchLoginSummary.TIMED_OUT, 1L,
+                BatchLoginSummary.FAILED, 1L));
+    }
+
+    @Test
+    public void run_shouldFetchLoginMethodsOnce_forWholeBatch() throws Exception {
+        mockInitiation("complete-1", LoginStatus.CLIENT_NOT_STARTED, COMPLETING_LINK);
+        mockInitiation("complete-2", LoginStatus.CLIENT_NOT_STARTED, COMPLETING_LINK);
+
+        batchRunner.run(List.of("complete-1", "complete-2"));
+
+        verify(loginAdapter, times(1)).getAllLoginMethods();
+    }
+
+    private void mockInitiation(String userId, LoginStatus status, Link next) throws Exception {
+        var links = mock(Links.class);
+        var initiatedLogin = mock(LoginInitiationResponse.class);
+        lenient().when(links.getNext()).thenReturn(next);
+        lenient().when(initiatedLogin.getLinks()).thenReturn(links);
+        when(initiatedLogin.getStatus()).thenReturn(status);
+        when(loginAdapter.initiateLogin(any(), eq(userId), eq(BANK_ID))).thenReturn(initiatedLogin);
+    }
+}
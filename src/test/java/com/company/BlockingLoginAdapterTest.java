@@ -0,0 +1,69 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BlockingLoginAdapterTest {
+
+    private static final String USER_ID = "191010101010";
+    private static final Link LINK = new Link("GET", "/status");
+    private static final AuthenticationMethod METHOD = AuthenticationMethod.builder().location(LINK).build();
+
+    @Mock
+    private AsyncLoginAdapter asyncLoginAdapter;
+    @Mock
+    private LoginSession session;
+    @Mock
+    private LoginInitiationResponse loginInitiationResponse;
+
+    @InjectMocks
+    private BlockingLoginAdapter loginAdapter;
+
+    @Test
+    public void getAllLoginMethods_shouldReturnAsyncResult() throws Exception {
+        var catalog = AuthenticationMethodCatalog.of(List.of(METHOD));
+        when(asyncLoginAdapter.getAllLoginMethodsAsync()).thenReturn(CompletableFuture.completedFuture(catalog));
+
+        assertThat(loginAdapter.getAllLoginMethods()).isEqualTo(catalog);
+    }
+
+    @Test
+    public void initiateLogin_shouldReturnAsyncResult() throws Exception {
+        when(asyncLoginAdapter.initiateLoginAsync(session, USER_ID, METHOD)).thenReturn(CompletableFuture.completedFuture(loginInitiationResponse));
+
+        assertThat(loginAdapter.initiateLogin(session, USER_ID, METHOD)).isEqualTo(loginInitiationResponse);
+    }
+
+    @Test
+    public void getLoginStatus_shouldReturnAsyncResult() throws Exception {
+        when(asyncLoginAdapter.getLoginStatusAsync(session, LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        assertThat(loginAdapter.getLoginStatus(session, LINK)).isEqualTo(LoginStatus.COMPLETE);
+    }
+
+    @Test
+    public void getLoginStatus_shouldRethrowUnderlyingException_whenAsyncCallFails() {
+        var errorMessage = "error message";
+        when(asyncLoginAdapter.getLoginStatusAsync(session, LINK)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException(errorMessage)));
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatus(session, LINK))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage(errorMessage);
+    }
+}
@@ -0,0 +1,170 @@
+package com.company;
+
+import com.company.beans.AdapterOperation;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BulkheadLoginAdapterTest {
+
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+    private static final AuthenticationMethod LOGIN_METHOD = AuthenticationMethod.builder().location(new Link("POST", "/uri")).build();
+
+    @Mock
+    private AsyncLoginAdapter delegate;
+
+    private final LoginSession session = new LoginSession();
+
+    @Test
+    public void getLoginStatus_shouldNotUseCapacityReservedForOtherOperations() {
+        var loginAdapter = new BulkheadLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new BulkheadLoginAdapter.Limits(1, 10)), 2, Duration.ofMinutes(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+        when(delegate.initiateLoginAsync(session, "user", LOGIN_METHOD)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        var queuedStatus = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.initiateLoginAsync(session, "user", LOGIN_METHOD);
+
+        assertThat(queuedStatus).isNotDone();
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+        verify(delegate).initiateLoginAsync(session, "user", LOGIN_METHOD);
+        assertThat(loginAdapter.bulkhead(AdapterOperation.STATUS))
+                .returns(1, metrics -> metrics.getActive())
+                .returns(1, metrics -> metrics.getQueued());
+    }
+
+    @Test
+    public void release_shouldStartQueuedInitiation_beforeQueuedStatus() {
+        var loginAdapter = new BulkheadLoginAdapter(delegate, Map.of(), 1, Duration.ofMinutes(1));
+        var firstStatus = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(firstStatus, new CompletableFuture<>());
+        when(delegate.initiateLoginAsync(session, "user", LOGIN_METHOD)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.initiateLoginAsync(session, "user", LOGIN_METHOD);
+        firstStatus.complete(LoginStatus.OUTSTANDING_TRANSACTION);
+
+        InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).getLoginStatusAsync(session, NEXT_LINK);
+        inOrder.verify(delegate).initiateLoginAsync(session, "user", LOGIN_METHOD);
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldReject_whenBulkheadQueueIsFull() {
+        var loginAdapter = new BulkheadLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new BulkheadLoginAdapter.Limits(1, 0)), 10, Duration.ofMinutes(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("STATUS bulkhead is full");
+        assertThat(loginAdapter.bulkhead(AdapterOperation.STATUS).getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    public void initiateLogin_shouldCompleteWithResponse_andReleaseCapacity() {
+        var loginAdapter = new BulkheadLoginAdapter(delegate, Map.of(), 1, Duration.ofMinutes(1));
+        var initiatedLogin = new LoginInitiationResponse(LoginStatus.CLIENT_NOT_STARTED, null);
+        when(delegate.initiateLoginAsync(session, "user", LOGIN_METHOD)).thenReturn(CompletableFuture.completedFuture(initiatedLogin));
+
+        assertThat(loginAdapter.initiateLoginAsync(session, "user", LOGIN_METHOD).join()).isEqualTo(initiatedLogin);
+        assertThat(loginAdapter.initiateLoginAsync(session, "user", LOGIN_METHOD).join()).isEqualTo(initiatedLogin);
+        assertThat(loginAdapter.bulkhead(AdapterOperation.INITIATE))
+                .returns(0, metrics -> metrics.getActive())
+                .returns(2L, metrics -> metrics.getCompleted());
+    }
+
+    @Test
+    public void release_shouldDrainLongQueue_whenQueuedRequestsCompleteRightAway() {
+        var loginAdapter = new BulkheadLoginAdapter(delegate, Map.of(), 1, Duration.ofMinutes(1));
+        var firstStatus = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK))
+                .thenReturn(firstStatus, CompletableFuture.completedFuture(LoginStatus.OUTSTANDING_TRANSACTION));
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        var queuedStatuses = new ArrayList<CompletableFuture<LoginStatus>>();
+        for (int i = 0; i < 50_000; i++) {
+            queuedStatuses.add(loginAdapter.getLoginStatusAsync(session, NEXT_LINK));
+        }
+        firstStatus.complete(LoginStatus.OUTSTANDING_TRANSACTION);
+
+        assertThat(queuedStatuses).allMatch(status -> status.isDone() && !status.isCompletedExceptionally());
+        assertThat(loginAdapter.bulkhead(AdapterOperation.STATUS).getActive()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldFailQueuedRequest_whenItWaitsLongerThanMaxQueueWait() {
+        var loginAdapter = new BulkheadLoginAdapter(delegate, Map.of(), 1, Duration.ofMillis(10));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        var queuedStatus = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        assertThatThrownBy(queuedStatus::join)
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("STATUS bulkhead is full");
+        assertThat(loginAdapter.bulkhead(AdapterOperation.STATUS).getQueued()).isZero();
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void register_shouldPublishBulkheadMetrics() throws Exception {
+        var mBeanServer = MBeanServerFactory.newMBeanServer();
+
+        new BulkheadLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new BulkheadLoginAdapter.Limits(5, 10)), 10, Duration.ofMinutes(1)).register(mBeanServer);
+
+        assertThat(mBeanServer.getAttribute(new ObjectName("com.company:type=Bulkhead,operation=status"), "MaxConcurrent")).isEqualTo(5);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotStartQueuedRequest_whenItIsCancelled() {
+        var loginAdapter = new BulkheadLoginAdapter(delegate, Map.of(), 1, Duration.ofMinutes(1));
+        var firstResponse = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(firstResponse);
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).cancel(true);
+        assertThat(loginAdapter.bulkhead(AdapterOperation.STATUS).getQueued()).isZero();
+        firstResponse.complete(LoginStatus.COMPLETE);
+
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+        assertThat(loginAdapter.bulkhead(AdapterOperation.STATUS).getActive()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldCancelDelegateRequest_whenStartedRequestIsCancelled() {
+        var loginAdapter = new BulkheadLoginAdapter(delegate, Map.of(), 1, Duration.ofMinutes(1));
+        var response = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(response);
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).cancel(true);
+
+        assertThat(response).isCancelled();
+        assertThat(loginAdapter.bulkhead(AdapterOperation.STATUS).getActive()).isZero();
+    }
+}
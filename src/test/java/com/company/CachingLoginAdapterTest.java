@@ -0,0 +1,127 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingLoginAdapterTest {
+
+    private static final Instant NOW = Instant.parse("2023-05-01T10:00:00Z");
+    private static final Duration TTL = Duration.ofMinutes(10);
+    private static final Duration REFRESH_AHEAD = Duration.ofMinutes(1);
+    private static final Duration STALE_IF_ERROR = Duration.ofMinutes(30);
+    private static final AuthenticationMethodCatalog METHODS = AuthenticationMethodCatalog.of(List.of(AuthenticationMethod.builder().message("old").build()));
+    private static final AuthenticationMethodCatalog NEW_METHODS = AuthenticationMethodCatalog.of(List.of(AuthenticationMethod.builder().message("new").build()));
+
+    @Mock
+    private AsyncLoginAdapter delegate;
+    @Mock
+    private Clock clock;
+
+    private CachingLoginAdapter loginAdapter;
+
+    @BeforeEach
+    public void setUp() {
+        loginAdapter = new CachingLoginAdapter(delegate, TTL, REFRESH_AHEAD, STALE_IF_ERROR, clock);
+        when(clock.instant()).thenReturn(NOW);
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(CompletableFuture.completedFuture(METHODS));
+        loginAdapter.getAllLoginMethodsAsync().join();
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldReturnCachedMethods_withinTtl() {
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(5)));
+
+        assertThat(loginAdapter.getAllLoginMethodsAsync().join()).isEqualTo(METHODS);
+        verify(delegate, times(1)).getAllLoginMethodsAsync();
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldRefreshInBackground_closeToExpiry() {
+        when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(9)));
+        var refresh = new CompletableFuture<AuthenticationMethodCatalog>();
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(refresh);
+
+        assertThat(loginAdapter.getAllLoginMethodsAsync().join()).isEqualTo(METHODS);
+        assertThat(loginAdapter.getAllLoginMethodsAsync().join()).isEqualTo(METHODS);
+        refresh.complete(NEW_METHODS);
+
+        assertThat(loginAdapter.getAllLoginMethodsAsync().join()).isEqualTo(NEW_METHODS);
+        verify(delegate, times(2)).getAllLoginMethodsAsync();
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldReturnStaleMethodsAndRefreshInBackground_afterTtl() {
+        when(clock.instant()).thenReturn(NOW.plus(TTL));
+        var refresh = new CompletableFuture<AuthenticationMethodCatalog>();
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(refresh);
+
+        assertThat(loginAdapter.getAllLoginMethodsAsync()).isCompletedWithValue(METHODS);
+        refresh.complete(NEW_METHODS);
+
+        assertThat(loginAdapter.getAllLoginMethodsAsync()).isCompletedWithValue(NEW_METHODS);
+        verify(delegate, times(2)).getAllLoginMethodsAsync();
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldWaitForRefresh_whenCacheIsTooStale() {
+        when(clock.instant()).thenReturn(NOW.plus(TTL).plus(STALE_IF_ERROR));
+        var refresh = new CompletableFuture<AuthenticationMethodCatalog>();
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(refresh);
+
+        var methods = loginAdapter.getAllLoginMethodsAsync();
+
+        assertThat(methods).isNotDone();
+        refresh.complete(NEW_METHODS);
+        assertThat(methods).isCompletedWithValue(NEW_METHODS);
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldReturnStaleMethods_whenRefreshFails() {
+        when(clock.instant()).thenReturn(NOW.plus(TTL).plus(Duration.ofMinutes(20)));
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(CompletableFuture.failedFuture(new IllegalStateException()));
+
+        assertThat(loginAdapter.getAllLoginMethodsAsync().join()).isEqualTo(METHODS);
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldFail_whenRefreshFailsAndCacheIsTooStale() {
+        var errorMessage = "error message";
+        when(clock.instant()).thenReturn(NOW.plus(TTL).plus(STALE_IF_ERROR));
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(CompletableFuture.failedFuture(new IllegalStateException(errorMessage)));
+
+        assertThatThrownBy(() -> loginAdapter.getAllLoginMethodsAsync().join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage(errorMessage);
+    }
+
+    @Test
+    public void getLoginStatus_shouldBePassedThrough() {
+        var session = new LoginSession();
+        var link = new Link("GET", "/status");
+
+        loginAdapter.getLoginStatusAsync(session, link);
+
+        verify(delegate).getLoginStatusAsync(session, link);
+    }
+}
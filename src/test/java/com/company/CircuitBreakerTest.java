@@ -0,0 +1,102 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(10, 4, 0.5, OPEN_DURATION, 2, now::get);
+
+    @Test
+    public void onFailure_shouldNotOpen_beforeMinimumCallsAreRecorded() {
+        recordFailures(3);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    public void onFailure_shouldOpen_whenFailureRateReachesThreshold() {
+        recordSuccesses(2);
+        recordFailures(2);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    public void onFailure_shouldOnlyCountCallsWithinWindow() {
+        recordFailures(3);
+        recordSuccesses(10);
+
+        recordFailures(2);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void getState_shouldBecomeHalfOpen_afterOpenDuration_andLetTrialCallsThrough() {
+        recordFailures(4);
+        now.addAndGet(OPEN_DURATION.toNanos());
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    @Test
+    public void onSuccess_shouldClose_whenAllTrialCallsSucceed() {
+        recordFailures(4);
+        now.addAndGet(OPEN_DURATION.toNanos());
+
+        recordSuccesses(2);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void onFailure_shouldReopen_whenTrialCallFails() {
+        recordFailures(4);
+        now.addAndGet(OPEN_DURATION.toNanos());
+
+        recordFailures(1);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    public void onIgnored_shouldReturnTrialPermission_withoutChangingState() {
+        recordFailures(4);
+        now.addAndGet(OPEN_DURATION.toNanos());
+        circuitBreaker.tryAcquirePermission();
+        circuitBreaker.tryAcquirePermission();
+
+        circuitBreaker.onIgnored();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+    }
+
+    private void recordSuccesses(int calls) {
+        for (int i = 0; i < calls; i++) {
+            circuitBreaker.tryAcquirePermission();
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private void recordFailures(int calls) {
+        for (int i = 0; i < calls; i++) {
+            circuitBreaker.tryAcquirePermission();
+            circuitBreaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingLoginAdapterTest {
+
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+
+    @Mock
+    private AsyncLoginAdapter delegate;
+
+    private final LoginSession session = new LoginSession();
+
+    @Test
+    public void getLoginStatus_shouldShareInFlightRequest_amongConcurrentCallers() {
+        var loginAdapter = new CoalescingLoginAdapter(delegate, Duration.ZERO);
+        var response = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(response);
+
+        var first = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        var second = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        response.complete(LoginStatus.OUTSTANDING_TRANSACTION);
+
+        assertThat(first.join()).isEqualTo(LoginStatus.OUTSTANDING_TRANSACTION);
+        assertThat(second.join()).isEqualTo(LoginStatus.OUTSTANDING_TRANSACTION);
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldSendNewRequest_afterPreviousCompleted_whenFreshnessIsZero() {
+        var loginAdapter = new CoalescingLoginAdapter(delegate, Duration.ZERO);
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(
+                CompletableFuture.completedFuture(LoginStatus.OUTSTANDING_TRANSACTION), CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+        var loginStatus = loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+
+        assertThat(loginStatus).isEqualTo(LoginStatus.COMPLETE);
+        verify(delegate, times(2)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldReuseFreshStatus_withinFreshnessWindow() {
+        var loginAdapter = new CoalescingLoginAdapter(delegate, Duration.ofMinutes(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.OUTSTANDING_TRANSACTION));
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+        var loginStatus = loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+
+        assertThat(loginStatus).isEqualTo(LoginStatus.OUTSTANDING_TRANSACTION);
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotShareRequests_betweenSessions() {
+        var loginAdapter = new CoalescingLoginAdapter(delegate, Duration.ofMinutes(1));
+        var otherSession = new LoginSession();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+        when(delegate.getLoginStatusAsync(otherSession, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.getLoginStatusAsync(otherSession, NEXT_LINK);
+
+        verify(delegate).getLoginStatusAsync(session, NEXT_LINK);
+        verify(delegate).getLoginStatusAsync(otherSession, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldShareRequest_betweenSessionsWithSameCookie() {
+        var loginAdapter = new CoalescingLoginAdapter(delegate, Duration.ofMinutes(1));
+        var otherSession = new LoginSession();
+        session.updateCookie("JSESSIONID=1");
+        otherSession.updateCookie("JSESSIONID=1");
+        var response = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(response);
+
+        var first = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        var second = loginAdapter.getLoginStatusAsync(otherSession, NEXT_LINK);
+        response.complete(LoginStatus.OUTSTANDING_TRANSACTION);
+
+        assertThat(first.join()).isEqualTo(LoginStatus.OUTSTANDING_TRANSACTION);
+        assertThat(second.join()).isEqualTo(LoginStatus.OUTSTANDING_TRANSACTION);
+        verify(delegate, times(1)).getLoginStatusAsync(any(), any());
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotShareRequests_betweenSessionsWithDifferentCookies() {
+        var loginAdapter = new CoalescingLoginAdapter(delegate, Duration.ofMinutes(1));
+        var otherSession = new LoginSession();
+        session.updateCookie("JSESSIONID=1");
+        otherSession.updateCookie("JSESSIONID=2");
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+        when(delegate.getLoginStatusAsync(otherSession, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.getLoginStatusAsync(otherSession, NEXT_LINK);
+
+        verify(delegate).getLoginStatusAsync(session, NEXT_LINK);
+        verify(delegate).getLoginStatusAsync(otherSession, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotReuseFailure() {
+        var loginAdapter = new CoalescingLoginAdapter(delegate, Duration.ofMinutes(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(
+                CompletableFuture.failedFuture(new IllegalStateException("Service unavailable")), CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join())
+                .hasRootCauseMessage("Service unavailable");
+        assertThat(loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join()).isEqualTo(LoginStatus.COMPLETE);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotCancelSharedRequest_whenOneCallerCancels() {
+        var loginAdapter = new CoalescingLoginAdapter(delegate, Duration.ZERO);
+        var response = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(response);
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).cancel(true);
+        var second = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        response.complete(LoginStatus.COMPLETE);
+
+        assertThat(second.join()).isEqualTo(LoginStatus.COMPLETE);
+    }
+}
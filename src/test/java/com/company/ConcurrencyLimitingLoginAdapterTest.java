@@ -0,0 +1,166 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ConcurrencyLimitingLoginAdapterTest {
+
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+    private static final AuthenticationMethod LOGIN_METHOD = AuthenticationMethod.builder().location(new Link("POST", "/uri")).build();
+
+    @Mock
+    private AsyncLoginAdapter delegate;
+
+    private final LoginSession session = new LoginSession();
+
+    @Test
+    public void getLoginStatus_shouldQueueRequest_untilSlotIsReleased() {
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, new AdaptiveConcurrencyLimit(1, 1, 1), 10, Duration.ofMinutes(1));
+        var firstResponse = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(firstResponse, CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        var first = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        var second = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        assertThat(second).isNotDone();
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+
+        firstResponse.complete(LoginStatus.OUTSTANDING_TRANSACTION);
+
+        assertThat(first.join()).isEqualTo(LoginStatus.OUTSTANDING_TRANSACTION);
+        assertThat(second.join()).isEqualTo(LoginStatus.COMPLETE);
+        assertThat(loginAdapter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldShedRequest_whenQueueIsFull() {
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, new AdaptiveConcurrencyLimit(1, 1, 1), 0, Duration.ofMinutes(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Concurrency limit of 1 requests reached");
+    }
+
+    @Test
+    public void getLoginStatus_shouldShedQueuedRequest_whenDownstreamStallsLongerThanMaxQueueWait() {
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, new AdaptiveConcurrencyLimit(1, 1, 1), 10, Duration.ofMillis(10));
+        var firstResponse = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(firstResponse);
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        var queued = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        assertThatThrownBy(queued::join).hasRootCauseMessage("Concurrency limit of 1 requests reached");
+        firstResponse.complete(LoginStatus.COMPLETE);
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+        assertThat(loginAdapter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldDrainLongQueue_whenQueuedRequestsCompleteRightAway() {
+        var queueSize = 50_000;
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, new AdaptiveConcurrencyLimit(1, 1, 1), queueSize, Duration.ofMinutes(1));
+        var firstResponse = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(firstResponse, CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        var queued = new ArrayList<CompletableFuture<LoginStatus>>();
+        for (int i = 0; i < queueSize; i++) {
+            queued.add(loginAdapter.getLoginStatusAsync(session, NEXT_LINK));
+        }
+
+        firstResponse.complete(LoginStatus.COMPLETE);
+
+        assertThat(queued).allMatch(response -> response.isDone() && !response.isCompletedExceptionally());
+        assertThat(loginAdapter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldLowerLimit_whenBankFails() {
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, new AdaptiveConcurrencyLimit(10, 1, 10), 0, Duration.ZERO);
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.failedFuture(new BankApiException(503, "Service unavailable")));
+
+        for (int i = 0; i < 5; i++) {
+            loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        }
+
+        assertThat(loginAdapter.getLimit()).isLessThan(10);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotCountAsDrop_whenBankRejectsRequest() {
+        var limit = spy(new AdaptiveConcurrencyLimit(20, 1, 100));
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, limit, 10, Duration.ofMinutes(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.failedFuture(new BankApiException(400, "Invalid user id")));
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        verify(limit).onSample(anyLong(), anyInt(), eq(false));
+    }
+
+    @Test
+    public void initiateLogin_shouldTakeFreedSlot_beforeQueuedStatusRequests() {
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, new AdaptiveConcurrencyLimit(1, 1, 1), 10, Duration.ofMinutes(1));
+        var firstResponse = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(firstResponse, new CompletableFuture<>());
+        when(delegate.initiateLoginAsync(session, "user", LOGIN_METHOD)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.initiateLoginAsync(session, "user", LOGIN_METHOD);
+        firstResponse.complete(LoginStatus.OUTSTANDING_TRANSACTION);
+
+        verify(delegate).initiateLoginAsync(session, "user", LOGIN_METHOD);
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotStartQueuedRequest_whenItIsCancelled() {
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, new AdaptiveConcurrencyLimit(1, 1, 1), 10, Duration.ofMinutes(1));
+        var firstResponse = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(firstResponse);
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).cancel(true);
+        firstResponse.complete(LoginStatus.COMPLETE);
+
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+        assertThat(loginAdapter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldCancelDelegateRequest_whenStartedRequestIsCancelled() {
+        var loginAdapter = new ConcurrencyLimitingLoginAdapter(delegate, new AdaptiveConcurrencyLimit(1, 1, 1), 10, Duration.ofMinutes(1));
+        var response = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(response);
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).cancel(true);
+
+        assertThat(response).isCancelled();
+        assertThat(loginAdapter.getInFlight()).isZero();
+    }
+}
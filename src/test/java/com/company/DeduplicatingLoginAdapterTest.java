@@ -0,0 +1,168 @@
+package com.company;
+
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.Link;
+import com.company.beans.Links;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DeduplicatingLoginAdapterTest {
+
+    private static final String USER_ID = "191212121212";
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+    private static final String SESSION_COOKIE = "JSESSIONID=session-id";
+    private static final AuthenticationMethod MOBILE_BANK_ID = AuthenticationMethod.builder()
+            .code(AuthenticationCode.BANKID_MOBILE).location(new Link("POST", "/mobile")).build();
+    private static final AuthenticationMethod SECURITY_TOKEN = AuthenticationMethod.builder()
+            .code(AuthenticationCode.SECURITY_TOKEN).location(new Link("POST", "/token")).build();
+    private static final LoginInitiationResponse INITIATED_LOGIN = new LoginInitiationResponse(LoginStatus.CLIENT_NOT_STARTED, new Links(NEXT_LINK));
+
+    @Mock
+    private AsyncLoginAdapter delegate;
+
+    private DeduplicatingLoginAdapter loginAdapter;
+
+    @BeforeEach
+    public void setUp() {
+        loginAdapter = new DeduplicatingLoginAdapter(delegate, Duration.ofMinutes(3));
+    }
+
+    @Test
+    public void initiateLogin_shouldJoinPendingLogin_ofSameUserAndMethod() {
+        var firstSession = new LoginSession();
+        firstSession.updateCookie(SESSION_COOKIE);
+        var secondSession = new LoginSession();
+        when(delegate.initiateLoginAsync(firstSession, USER_ID, MOBILE_BANK_ID)).thenReturn(CompletableFuture.completedFuture(INITIATED_LOGIN));
+
+        loginAdapter.initiateLoginAsync(firstSession, USER_ID, MOBILE_BANK_ID).join();
+        var duplicate = loginAdapter.initiateLoginAsync(secondSession, USER_ID, MOBILE_BANK_ID).join();
+
+        assertThat(duplicate).isEqualTo(INITIATED_LOGIN);
+        assertThat(secondSession.getCookie()).contains(SESSION_COOKIE);
+        verify(delegate, times(1)).initiateLoginAsync(any(), any(), any());
+    }
+
+    @Test
+    public void initiateLogin_shouldNotDeduplicate_differentMethodsOrUsers() {
+        when(delegate.initiateLoginAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(INITIATED_LOGIN));
+
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, MOBILE_BANK_ID).join();
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, SECURITY_TOKEN).join();
+        loginAdapter.initiateLoginAsync(new LoginSession(), "other user", MOBILE_BANK_ID).join();
+
+        verify(delegate, times(3)).initiateLoginAsync(any(), any(), any());
+    }
+
+    @Test
+    public void initiateLogin_shouldInitiateAgain_afterPendingLoginCompleted() {
+        var session = new LoginSession();
+        when(delegate.initiateLoginAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(INITIATED_LOGIN));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginAdapter.initiateLoginAsync(session, USER_ID, MOBILE_BANK_ID).join();
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+        assertThat(loginAdapter.getPendingLogins()).isZero();
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, MOBILE_BANK_ID).join();
+
+        verify(delegate, times(2)).initiateLoginAsync(any(), any(), any());
+    }
+
+    @Test
+    public void initiateLogin_shouldInitiateAgain_afterPendingLoginExpired() throws Exception {
+        loginAdapter = new DeduplicatingLoginAdapter(delegate, Duration.ofMillis(1));
+        when(delegate.initiateLoginAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(INITIATED_LOGIN));
+
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, MOBILE_BANK_ID).join();
+        Thread.sleep(5);
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, MOBILE_BANK_ID).join();
+
+        verify(delegate, times(2)).initiateLoginAsync(any(), any(), any());
+    }
+
+    @Test
+    public void initiateLogin_shouldNotReuseFailedInitiation() {
+        when(delegate.initiateLoginAsync(any(), any(), any())).thenReturn(
+                CompletableFuture.failedFuture(new IllegalStateException("Service unavailable")), CompletableFuture.completedFuture(INITIATED_LOGIN));
+
+        assertThatThrownBy(() -> loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, MOBILE_BANK_ID).join())
+                .hasRootCauseMessage("Service unavailable");
+        assertThat(loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, MOBILE_BANK_ID).join()).isEqualTo(INITIATED_LOGIN);
+    }
+
+    @Test
+    public void getLoginStatus_shouldEndOnlyOwnPendingLogin_whenUsersShareStatusLink() {
+        var firstSession = new LoginSession();
+        var secondSession = new LoginSession();
+        when(delegate.initiateLoginAsync(any(), any(), any())).thenAnswer(invocation -> {
+            LoginSession session = invocation.getArgument(0);
+            session.updateCookie("JSESSIONID=" + invocation.getArgument(1));
+            return CompletableFuture.completedFuture(INITIATED_LOGIN);
+        });
+        when(delegate.getLoginStatusAsync(firstSession, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginAdapter.initiateLoginAsync(firstSession, USER_ID, MOBILE_BANK_ID).join();
+        loginAdapter.initiateLoginAsync(secondSession, "other user", MOBILE_BANK_ID).join();
+        loginAdapter.getLoginStatusAsync(firstSession, NEXT_LINK).join();
+
+        assertThat(loginAdapter.getPendingLogins()).isOne();
+        loginAdapter.initiateLoginAsync(new LoginSession(), "other user", MOBILE_BANK_ID).join();
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, MOBILE_BANK_ID).join();
+        verify(delegate, times(3)).initiateLoginAsync(any(), any(), any());
+    }
+
+    @Test
+    public void getLoginStatus_shouldEndPendingLogin_whenStatusRequestFails() {
+        var session = new LoginSession();
+        when(delegate.initiateLoginAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(INITIATED_LOGIN));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Service unavailable")));
+
+        loginAdapter.initiateLoginAsync(session, USER_ID, MOBILE_BANK_ID).join();
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join()).hasRootCauseMessage("Service unavailable");
+
+        assertThat(loginAdapter.getPendingLogins()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldEndPendingLogin_whenBankRotatedSessionCookie() {
+        var session = new LoginSession();
+        session.updateCookie(SESSION_COOKIE);
+        when(delegate.initiateLoginAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(INITIATED_LOGIN));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginAdapter.initiateLoginAsync(session, USER_ID, MOBILE_BANK_ID).join();
+        session.updateCookie("JSESSIONID=rotated-session-id");
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+
+        assertThat(loginAdapter.getPendingLogins()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldEndPendingLogin_whenJoiningCallerSeesFinalStatus() {
+        var joiningSession = new LoginSession();
+        when(delegate.initiateLoginAsync(any(), any(), any())).thenReturn(CompletableFuture.completedFuture(INITIATED_LOGIN));
+        when(delegate.getLoginStatusAsync(joiningSession, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, MOBILE_BANK_ID).join();
+        loginAdapter.initiateLoginAsync(joiningSession, USER_ID, MOBILE_BANK_ID).join();
+        loginAdapter.getLoginStatusAsync(joiningSession, NEXT_LINK).join();
+
+        assertThat(loginAdapter.getPendingLogins()).isZero();
+    }
+}
@@ -0,0 +1,34 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FuturesTest {
+
+    @Test
+    public void unwrap_shouldReturnCauseOfCompletionException() {
+        var cause = new IllegalStateException("failed");
+
+        assertThat(Futures.unwrap(new CompletionException(cause))).isSameAs(cause);
+    }
+
+    @Test
+    public void unwrap_shouldRethrowError() {
+        var error = new OutOfMemoryError();
+
+        assertThatThrownBy(() -> Futures.unwrap(new CompletionException(error))).isSameAs(error);
+    }
+
+    @Test
+    public void unwrap_shouldWrapThrowable_thatIsNeitherExceptionNorError() {
+        var throwable = new Throwable("custom");
+
+        assertThat(Futures.unwrap(new CompletionException(throwable)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCause(throwable);
+    }
+}
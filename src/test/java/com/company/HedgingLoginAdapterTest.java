@@ -0,0 +1,133 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.metrics.LoginMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class HedgingLoginAdapterTest {
+
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+    private static final HedgingPolicy POLICY = HedgingPolicy.builder()
+            .initialDelay(Duration.ofMillis(10)).budgetRatio(1).build();
+
+    @Mock
+    private AsyncLoginAdapter delegate;
+
+    private final LoginSession session = new LoginSession();
+    private final LoginMetrics metrics = new LoginMetrics();
+
+    @Test
+    public void getLoginStatus_shouldSendHedge_andCancelSlowRequest_whenHedgeWins() {
+        var loginAdapter = new HedgingLoginAdapter(delegate, POLICY, metrics);
+        var slowResponse = new CompletableFuture<LoginStatus>();
+        var hedgedResponse = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(slowResponse, hedgedResponse);
+
+        var loginStatus = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        verify(delegate, timeout(1_000).times(2)).getLoginStatusAsync(session, NEXT_LINK);
+        hedgedResponse.complete(LoginStatus.COMPLETE);
+
+        assertThat(loginStatus.join()).isEqualTo(LoginStatus.COMPLETE);
+        assertThat(slowResponse).isCancelled();
+        assertThat(metrics.getHedgesSent()).isEqualTo(1);
+        assertThat(metrics.getHedgesWon()).isEqualTo(1);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotHedge_whenResponseArrivesInTime() {
+        var loginAdapter = new HedgingLoginAdapter(delegate, POLICY, metrics);
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        assertThat(loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join()).isEqualTo(LoginStatus.COMPLETE);
+
+        verify(delegate, after(50).times(1)).getLoginStatusAsync(session, NEXT_LINK);
+        assertThat(metrics.getHedgesSent()).isZero();
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotHedge_whenBudgetIsUsedUp() {
+        var loginAdapter = new HedgingLoginAdapter(delegate, HedgingPolicy.builder().initialDelay(Duration.ofMillis(10)).budgetRatio(0.5).build(), metrics);
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(new CompletableFuture<>());
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        verify(delegate, after(100).times(3)).getLoginStatusAsync(session, NEXT_LINK);
+        assertThat(metrics.getHedgesSent()).isEqualTo(1);
+    }
+
+    @Test
+    public void getLoginStatus_shouldUseHedgeResult_whenFirstRequestFails() {
+        var loginAdapter = new HedgingLoginAdapter(delegate, POLICY, metrics);
+        var firstResponse = new CompletableFuture<LoginStatus>();
+        var hedgedResponse = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(firstResponse, hedgedResponse);
+
+        var loginStatus = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        verify(delegate, timeout(1_000).times(2)).getLoginStatusAsync(session, NEXT_LINK);
+        firstResponse.completeExceptionally(new IllegalStateException("Service unavailable"));
+
+        assertThat(loginStatus).isNotDone();
+        hedgedResponse.complete(LoginStatus.OUTSTANDING_TRANSACTION);
+        assertThat(loginStatus.join()).isEqualTo(LoginStatus.OUTSTANDING_TRANSACTION);
+    }
+
+    @Test
+    public void getLoginStatus_shouldFail_whenOnlyRequestFails() {
+        var loginAdapter = new HedgingLoginAdapter(delegate, POLICY, metrics);
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Service unavailable")));
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join())
+                .hasRootCauseMessage("Service unavailable");
+    }
+
+    @Test
+    public void getLoginStatus_shouldAdaptHedgeDelay_toObservedLatencies() throws Exception {
+        var initialDelay = Duration.ofSeconds(5).toNanos();
+        var loginAdapter = new HedgingLoginAdapter(delegate, HedgingPolicy.builder().initialDelay(Duration.ofNanos(initialDelay)).build(), metrics);
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.OUTSTANDING_TRANSACTION));
+
+        var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (loginAdapter.getHedgeDelayNanos() == initialDelay && System.nanoTime() < deadline) {
+            loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+            Thread.sleep(5);
+        }
+
+        assertThat(loginAdapter.getHedgeDelayNanos()).isEqualTo(Duration.ofMillis(10).toNanos());
+    }
+
+    @Test
+    public void getLoginStatus_shouldKeepHedgeDelay_whenHedgesKeepWinning() throws Exception {
+        var initialDelay = Duration.ofMillis(20).toNanos();
+        var loginAdapter = new HedgingLoginAdapter(delegate, HedgingPolicy.builder()
+                .initialDelay(Duration.ofNanos(initialDelay)).minDelay(Duration.ofNanos(1)).budgetRatio(1).build(), metrics);
+        var calls = new AtomicInteger();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenAnswer(invocation -> calls.getAndIncrement() % 2 == 0
+                ? new CompletableFuture<>()
+                : CompletableFuture.completedFuture(LoginStatus.OUTSTANDING_TRANSACTION));
+
+        var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (loginAdapter.getHedgeDelayNanos() == initialDelay && System.nanoTime() < deadline) {
+            loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+        }
+
+        assertThat(loginAdapter.getHedgeDelayNanos()).isGreaterThanOrEqualTo(initialDelay * 3 / 4);
+    }
+}
@@ -0,0 +1,37 @@
+package com.company;
+
+import com.company.beans.AdapterOperation;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpClientConfigTest {
+
+    @Test
+    public void newHttpClient_shouldPreferHttp2_withConnectTimeout() {
+        var httpClient = HttpClientConfig.defaultConfig().newHttpClient();
+
+        assertThat(httpClient.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(httpClient.connectTimeout()).contains(Duration.ofSeconds(5));
+        assertThat(httpClient.executor()).isPresent();
+    }
+
+    @Test
+    public void requestTimeout_shouldBeEmpty_forOperationWithoutTimeout() {
+        var clientConfig = HttpClientConfig.builder().requestTimeouts(Map.of(AdapterOperation.STATUS, Duration.ofSeconds(1))).build();
+
+        assertThat(clientConfig.requestTimeout(AdapterOperation.STATUS)).contains(Duration.ofSeconds(1));
+        assertThat(clientConfig.requestTimeout(AdapterOperation.INITIATE)).isEmpty();
+    }
+
+    @Test
+    public void defaultConfig_shouldHaveTimeoutForEveryOperation() {
+        for (var operation : AdapterOperation.values()) {
+            assertThat(HttpClientConfig.defaultConfig().requestTimeout(operation)).isPresent();
+        }
+    }
+}
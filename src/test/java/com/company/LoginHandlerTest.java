@@ -2,25 +2,39 @@ package com.company;
 
 import com.company.beans.AuthenticationCode;
 import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
 import com.company.beans.Links;
 import com.company.beans.LoginStatus;
+import com.company.beans.PendingLogin;
 import com.company.beans.dto.LoginInitiationResponse;
+import com.company.tracing.Span;
+import com.company.tracing.TraceRecorder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.PrintStream;
-import java.util.LinkedList;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,6 +45,7 @@ public class LoginHandlerTest {
     private static final String USER_ID = "user id";
     private static final String BANK_ID_LOGIN_MESSAGE = "bank id login message";
     private static final String DEFAULT_USER_ID = "191212121212";
+    private static final Link NEXT_LINK = new Link("GET", "/next");
     @Mock
     public AuthenticationMethod selectedAuthMethod;
     @Mock
@@ -43,21 +58,26 @@ public class LoginHandlerTest {
     private LoginInitiationResponse initiatedLogin;
     @Mock
     private Links links;
-
-    private List<AuthenticationMethod> authenticationMethods = new LinkedList<>();
+    @Mock
+    private LoginStatusPoller statusPoller;
+    @Spy
+    private TraceRecorder traceRecorder = new TraceRecorder(100, 1);
+    @Mock
+    private PendingLoginJournal journal;
 
     @InjectMocks
     private LoginHandler loginHandler;
 
     @BeforeEach
     public void setUp() throws Exception {
-        when(loginAdapter.getAllLoginMethods()).thenReturn(authenticationMethods);
-        authenticationMethods.add(selectedAuthMethod);
         lenient().when(scanner.nextLine()).thenReturn(USER_ID);
-        lenient().when(loginAdapter.initiateLogin(any(), eq(selectedAuthMethod))).thenReturn(initiatedLogin);
+        lenient().when(loginAdapter.initiateLogin(any(), any(), eq(selectedAuthMethod))).thenReturn(initiatedLogin);
         lenient().when(initiatedLogin.getLinks()).thenReturn(links);
-        lenient().when(selectedAuthMethod.getCode()).thenReturn(AuthenticationCode.BANKID_MOBILE);
-        lenient().when(selectedAuthMethod.getMessage()).thenReturn(BANK_ID_LOGIN_MESSAGE);
+        lenient().when(statusPoller.getDeadline()).thenReturn(Duration.ofMinutes(3));
+        when(selectedAuthMethod.getCode()).thenReturn(AuthenticationCode.BANKID_MOBILE);
+        when(selectedAuthMethod.getMessage()).thenReturn(BANK_ID_LOGIN_MESSAGE);
+        var authenticationMethods = AuthenticationMethodCatalog.of(List.of(selectedAuthMethod));
+        lenient().when(loginAdapter.getAllLoginMethods()).thenReturn(authenticationMethods);
     }
 
     @Test
@@ -71,7 +91,7 @@ public class LoginHandlerTest {
     public void performLogin_shouldInitiateLogin_withSelectedLoginMethod() throws Exception {
         loginHandler.performLogin();
 
-        verify(loginAdapter).initiateLogin(any(), eq(selectedAuthMethod));
+        verify(loginAdapter).initiateLogin(any(), any(), eq(selectedAuthMethod));
     }
 
     @Test
@@ -83,12 +103,24 @@ public class LoginHandlerTest {
 
     @Test
     public void performLogin_shouldThrowException_whenBankIdIsNotAvailableToSelect() throws Exception {
-        when(loginAdapter.getAllLoginMethods()).thenReturn(List.of(AuthenticationMethod.builder().code(AuthenticationCode.BANKID_CARD).build()));
+        lenient().when(loginAdapter.getAllLoginMethods()).thenReturn(AuthenticationMethodCatalog.of(List.of(AuthenticationMethod.builder().code(AuthenticationCode.BANKID_CARD).build())));
         assertThatThrownBy(() -> loginHandler.performLogin())
                 .isInstanceOf(IllegalStateException.class)
                 .hasMessage("%s method is not available".formatted(AuthenticationCode.BANKID_MOBILE));
     }
 
+    @Test
+    public void performLogin_shouldInitiateLogin_withRequestedLoginMethod() throws Exception {
+        var securityToken = AuthenticationMethod.builder().code(AuthenticationCode.SECURITY_TOKEN).build();
+        var authenticationMethods = AuthenticationMethodCatalog.of(List.of(selectedAuthMethod, securityToken));
+        lenient().when(loginAdapter.getAllLoginMethods()).thenReturn(authenticationMethods);
+        when(loginAdapter.initiateLogin(any(), any(), eq(securityToken))).thenReturn(initiatedLogin);
+
+        loginHandler.performLogin(AuthenticationCode.SECURITY_TOKEN);
+
+        verify(loginAdapter).initiateLogin(any(), any(), eq(securityToken));
+    }
+
     @Test
     public void performLogin_shouldAskUserForID() throws Exception {
         loginHandler.performLogin();
@@ -101,7 +133,7 @@ public class LoginHandlerTest {
         when(scanner.nextLine()).thenReturn(" ");
         loginHandler.performLogin();
 
-        verify(loginAdapter).initiateLogin(DEFAULT_USER_ID, selectedAuthMethod);
+        verify(loginAdapter).initiateLogin(any(), eq(DEFAULT_USER_ID), eq(selectedAuthMethod));
     }
 
     @Test
@@ -109,7 +141,7 @@ public class LoginHandlerTest {
         when(scanner.nextLine()).thenReturn(USER_ID);
         loginHandler.performLogin();
 
-        verify(loginAdapter).initiateLogin(USER_ID, selectedAuthMethod);
+        verify(loginAdapter).initiateLogin(any(), eq(USER_ID), eq(selectedAuthMethod));
     }
 
     @Test
@@ -120,36 +152,112 @@ public class LoginHandlerTest {
         loginHandler.performLogin();
 
         verify(printStream).println("Can not proceed with current login status: " + loginStatus);
-        verifyLoginRetry(0);
+        verify(statusPoller, never()).poll(any(), any(), any(), any());
     }
 
     @Test
-    public void performLogin_shouldWaitForLogin_when3rdTimeCompleted() throws Exception {
+    public void performLogin_shouldPollLoginStatus_ofInitiatedLogin() throws Exception {
         when(initiatedLogin.getStatus()).thenReturn(LoginStatus.CLIENT_NOT_STARTED);
-        when(loginAdapter.getLoginStatus(any())).thenReturn(LoginStatus.CLIENT_NOT_STARTED, LoginStatus.CLIENT_NOT_STARTED, LoginStatus.COMPLETE);
+        when(links.getNext()).thenReturn(NEXT_LINK);
+        when(statusPoller.poll(any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginHandler.performLogin();
+
+        verify(statusPoller).poll(any(), eq(NEXT_LINK), any(), any());
+    }
+
+    @Test
+    public void performLogin_shouldPrintEveryStatus_until3rdTimeCompleted() throws Exception {
+        when(initiatedLogin.getStatus()).thenReturn(LoginStatus.CLIENT_NOT_STARTED);
+        when(statusPoller.poll(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Consumer<LoginStatus> statusListener = invocation.getArgument(3);
+            statusListener.accept(LoginStatus.CLIENT_NOT_STARTED);
+            statusListener.accept(LoginStatus.CLIENT_NOT_STARTED);
+            return CompletableFuture.completedFuture(LoginStatus.COMPLETE);
+        });
 
         loginHandler.performLogin();
 
         verifyLoginWaitStatus(2);
-        verifyLoginRetry(3);
         verify(printStream).println("Login was successfully, login status: " + LoginStatus.COMPLETE);
     }
 
     @Test
-    public void performLogin_shouldWaitForLogin_maximum10Times() throws Exception {
+    public void performLogin_shouldPrintTimeoutMessage_whenLoginIsNotCompletedInTime() throws Exception {
+        var timeoutMessage = "Login was not completed after 10 status checks";
         when(initiatedLogin.getStatus()).thenReturn(LoginStatus.CLIENT_NOT_STARTED);
-        when(loginAdapter.getLoginStatus(any())).thenReturn(LoginStatus.CLIENT_NOT_STARTED);
+        when(statusPoller.poll(any(), any(), any(), any())).thenReturn(CompletableFuture.failedFuture(new TimeoutException(timeoutMessage)));
 
         loginHandler.performLogin();
 
-        verifyLoginWaitStatus(10);
-        verifyLoginRetry(10);
+        verify(printStream).println(timeoutMessage);
     }
 
-    private void verifyLoginWaitStatus(int wantedNumberOfInvocations) throws Exception {
-        verify(printStream, times(wantedNumberOfInvocations)).println("Current login status: " + LoginStatus.CLIENT_NOT_STARTED);
+    @Test
+    public void performLogin_shouldTraceLoginStages_withOutcome() throws Exception {
+        when(initiatedLogin.getStatus()).thenReturn(LoginStatus.CLIENT_NOT_STARTED);
+        when(statusPoller.poll(any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginHandler.performLogin();
+
+        assertThat(traceRecorder.getSpans()).extracting(Span::name)
+                .containsExactly("login", "fetch login methods", "enter user id", "initiate login");
+        assertThat(traceRecorder.getSpans().get(0).detail()).isEqualTo(LoginStatus.COMPLETE.name());
     }
-    private void verifyLoginRetry(int wantedNumberOfInvocations) throws Exception {
-        verify(loginAdapter, times(wantedNumberOfInvocations)).getLoginStatus(any());
+
+    @Test
+    public void performLogin_shouldPassTraceToSession() throws Exception {
+        when(initiatedLogin.getStatus()).thenReturn(LoginStatus.CLIENT_NOT_STARTED);
+        when(statusPoller.poll(any(), any(), any(), any())).thenAnswer(invocation -> {
+            LoginSession session = invocation.getArgument(0);
+            assertThat(session.getTrace().isSampled()).isTrue();
+            return CompletableFuture.completedFuture(LoginStatus.COMPLETE);
+        });
+
+        loginHandler.performLogin();
+
+        verify(statusPoller).poll(any(), any(), any(), any());
+    }
+
+    @Test
+    public void performLogin_shouldJournalPendingLogin_untilItIsFinished() throws Exception {
+        when(initiatedLogin.getStatus()).thenReturn(LoginStatus.CLIENT_NOT_STARTED);
+        when(links.getNext()).thenReturn(NEXT_LINK);
+        when(statusPoller.poll(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Consumer<LoginStatus> statusListener = invocation.getArgument(3);
+            statusListener.accept(LoginStatus.OUTSTANDING_TRANSACTION);
+            return CompletableFuture.completedFuture(LoginStatus.COMPLETE);
+        });
+
+        loginHandler.performLogin();
+
+        var journaled = ArgumentCaptor.forClass(PendingLogin.class);
+        verify(journal, times(2)).record(journaled.capture());
+        assertThat(journaled.getAllValues()).extracting(PendingLogin::getUserId, PendingLogin::getStatusLink, login -> login.getLastStatus().orElseThrow())
+                .containsExactly(tuple(USER_ID, NEXT_LINK, LoginStatus.CLIENT_NOT_STARTED), tuple(USER_ID, NEXT_LINK, LoginStatus.OUTSTANDING_TRANSACTION));
+        var id = journaled.getValue().getId();
+        assertThat(journaled.getAllValues()).extracting(PendingLogin::getId).containsOnly(id).doesNotContainNull();
+        verify(journal).remove(id);
+    }
+
+    @Test
+    public void resumePendingLogins_shouldPollJournaledLogins_withTheirSessionCookie() throws Exception {
+        var pendingLogin = PendingLogin.builder().id("1").userId(USER_ID).statusLink(NEXT_LINK).cookie("JSESSIONID=1")
+                .deadline(Instant.now().plusSeconds(60)).build();
+        when(journal.getPendingLogins()).thenReturn(List.of(pendingLogin));
+        when(statusPoller.poll(any(), eq(NEXT_LINK), eq(pendingLogin.getDeadline()), any())).thenAnswer(invocation -> {
+            LoginSession session = invocation.getArgument(0);
+            assertThat(session.getCookie()).contains("JSESSIONID=1");
+            return CompletableFuture.completedFuture(LoginStatus.COMPLETE);
+        });
+
+        loginHandler.resumePendingLogins();
+
+        verify(printStream).println("Resumed login of user %s finished with status: %s".formatted(USER_ID, LoginStatus.COMPLETE));
+        verify(journal).remove("1");
+    }
+
+    private void verifyLoginWaitStatus(int wantedNumberOfInvocations) {
+        verify(printStream, times(wantedNumberOfInvocations)).println("Current login status: " + LoginStatus.CLIENT_NOT_STARTED);
     }
 }
@@ -0,0 +1,261 @@
+package com.company;
+
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.Links;
+import com.company.beans.LoginStatus;
+import com.company.beans.LoginStatusEvent;
+import com.company.beans.PendingLogin;
+import com.company.beans.dto.LoginInitiationResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginServiceTest {
+
+    private static final String USER_ID = "191212121212";
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+    private static final AuthenticationMethod MOBILE_BANK_ID = AuthenticationMethod.builder()
+            .code(AuthenticationCode.BANKID_MOBILE)
+            .message("Mobile BankID")
+            .location(new Link("POST", "/bankid/mobile"))
+            .build();
+
+    @Mock
+    private AsyncLoginAdapter loginAdapter;
+    @Mock
+    private LoginStatusPoller statusPoller;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final LoginStatusPublisher statusPublisher = new LoginStatusPublisher(Runnable::run, 16);
+    private LoginService service;
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        lenient().when(loginAdapter.getAllLoginMethodsAsync())
+                .thenReturn(CompletableFuture.completedFuture(AuthenticationMethodCatalog.of(List.of(MOBILE_BANK_ID))));
+        lenient().when(statusPoller.getDeadline()).thenReturn(Duration.ofMinutes(3));
+        service = LoginService.start(0, loginAdapter, statusPoller, statusPublisher);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.close();
+        statusPublisher.close();
+        httpClient.close();
+    }
+
+    @Test
+    public void getMethods_shouldListLoginMethods() throws Exception {
+        var response = send(get("/methods"));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo("{\"methods\":[{\"code\":\"BANKID_MOBILE\",\"message\":\"Mobile BankID\"}]}");
+    }
+
+    @Test
+    public void postLogin_shouldInitiateLogin_andPollItsStatus() throws Exception {
+        initiateLoginReturning(LoginStatus.CLIENT_NOT_STARTED);
+        when(statusPoller.poll(any(), eq(NEXT_LINK), any(), any())).thenReturn(new CompletableFuture<>());
+
+        var response = send(postLogin("{\"userId\":\"%s\",\"method\":\"BANKID_MOBILE\"}".formatted(USER_ID)));
+
+        assertThat(response.statusCode()).isEqualTo(201);
+        assertThat(response.body()).matches("\\{\"id\":\"[0-9a-f-]{36}\",\"status\":\"CLIENT_NOT_STARTED\",\"finished\":false}");
+        assertThat(service.getLogins()).isEqualTo(1);
+    }
+
+    @Test
+    public void postLogin_shouldRespondBadRequest_whenMethodIsMissing() throws Exception {
+        var response = send(postLogin("{\"userId\":\"%s\"}".formatted(USER_ID)));
+
+        assertThat(response.statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    public void postLogin_shouldRespondServiceUnavailable_whenAdapterRejectsLogin() throws Exception {
+        when(loginAdapter.initiateLoginAsync(any(), eq(USER_ID), eq(MOBILE_BANK_ID)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("INITIATE bulkhead is full")));
+
+        var response = send(postLogin("{\"userId\":\"%s\",\"method\":\"BANKID_MOBILE\"}".formatted(USER_ID)));
+
+        assertThat(response.statusCode()).isEqualTo(503);
+        assertThat(response.body()).isEqualTo("{\"error\":\"INITIATE bulkhead is full\"}");
+    }
+
+    @Test
+    public void postLogin_shouldRespondUnprocessable_whenBankRejectsLogin() throws Exception {
+        when(loginAdapter.initiateLoginAsync(any(), eq(USER_ID), eq(MOBILE_BANK_ID)))
+                .thenReturn(CompletableFuture.failedFuture(new BankApiException(400, "Invalid user id")));
+
+        var response = send(postLogin("{\"userId\":\"%s\",\"method\":\"BANKID_MOBILE\"}".formatted(USER_ID)));
+
+        assertThat(response.statusCode()).isEqualTo(422);
+        assertThat(response.body()).isEqualTo("{\"error\":\"Bank API request failed: Invalid user id\"}");
+    }
+
+    @Test
+    public void postLogin_shouldRespondBadGateway_whenBankFails() throws Exception {
+        when(loginAdapter.initiateLoginAsync(any(), eq(USER_ID), eq(MOBILE_BANK_ID)))
+                .thenReturn(CompletableFuture.failedFuture(new BankApiException(503, "Service unavailable")));
+
+        var response = send(postLogin("{\"userId\":\"%s\",\"method\":\"BANKID_MOBILE\"}".formatted(USER_ID)));
+
+        assertThat(response.statusCode()).isEqualTo(502);
+    }
+
+    @Test
+    public void postLogin_shouldGiveLoginsRandomIds() throws Exception {
+        initiateLoginReturning(LoginStatus.CLIENT_NOT_STARTED);
+        when(statusPoller.poll(any(), eq(NEXT_LINK), any(), any())).thenReturn(new CompletableFuture<>());
+
+        var first = loginId(send(postLogin("{\"userId\":\"%s\",\"method\":\"BANKID_MOBILE\"}".formatted(USER_ID))));
+        var second = loginId(send(postLogin("{\"userId\":\"%s\",\"method\":\"BANKID_MOBILE\"}".formatted(USER_ID))));
+
+        assertThat(UUID.fromString(first)).isNotEqualTo(UUID.fromString(second));
+    }
+
+    @Test
+    public void start_shouldListenOnLoopback() {
+        assertThat(service.getAddress().getAddress().isLoopbackAddress()).isTrue();
+    }
+
+    @Test
+    public void getLogin_shouldWaitForStatusChange_whenLongPolling() throws Exception {
+        initiateLoginReturning(LoginStatus.CLIENT_NOT_STARTED);
+        var result = new CompletableFuture<LoginStatus>();
+        var session = new CompletableFuture<LoginSession>();
+        when(statusPoller.poll(any(), eq(NEXT_LINK), any(), any())).thenAnswer(invocation -> {
+            session.complete(invocation.getArgument(0));
+            return result;
+        });
+        var id = loginId(send(postLogin("{\"userId\":\"%s\",\"method\":\"BANKID_MOBILE\"}".formatted(USER_ID))));
+
+        var longPoll = httpClient.sendAsync(get("/logins/%s?wait=10".formatted(id)), HttpResponse.BodyHandlers.ofString());
+        Thread.sleep(100);
+        assertThat(longPoll).isNotDone();
+        statusPublisher.publish(LoginStatusEvent.builder()
+                .sessionId(session.join().getId())
+                .statusLink(NEXT_LINK)
+                .status(LoginStatus.OUTSTANDING_TRANSACTION)
+                .timestamp(Instant.now())
+                .build());
+
+        assertThat(longPoll.join().body()).isEqualTo("{\"id\":\"%s\",\"status\":\"OUTSTANDING_TRANSACTION\",\"finished\":false}".formatted(id));
+
+        result.complete(LoginStatus.COMPLETE);
+        var finished = send(get("/logins/%s?wait=10&since=OUTSTANDING_TRANSACTION".formatted(id)));
+        assertThat(finished.body()).isEqualTo("{\"id\":\"%s\",\"status\":\"COMPLETE\",\"finished\":true}".formatted(id));
+    }
+
+    @Test
+    public void postLogin_shouldKeepPendingLoginInJournal_untilPollingEnds() throws Exception {
+        var journal = PendingLoginJournal.open(directory.resolve("journal"), 16);
+        restartWith(journal);
+        initiateLoginReturning(LoginStatus.CLIENT_NOT_STARTED);
+        var result = new CompletableFuture<LoginStatus>();
+        when(statusPoller.poll(any(), eq(NEXT_LINK), any(), any())).thenReturn(result);
+
+        var id = loginId(send(postLogin("{\"userId\":\"%s\",\"method\":\"BANKID_MOBILE\"}".formatted(USER_ID))));
+
+        assertThat(journal.getPendingLogins()).singleElement().satisfies(pendingLogin -> {
+            assertThat(pendingLogin.getId()).isEqualTo(id);
+            assertThat(pendingLogin.getUserId()).isEqualTo(USER_ID);
+            assertThat(pendingLogin.getStatusLink()).isEqualTo(NEXT_LINK);
+        });
+        result.complete(LoginStatus.COMPLETE);
+        assertThat(journal.getPendingLogins()).isEmpty();
+        journal.close();
+    }
+
+    @Test
+    public void start_shouldResumeJournaledLogins_underTheirIds() throws Exception {
+        var deadline = Instant.now().plus(Duration.ofMinutes(3)).truncatedTo(ChronoUnit.MILLIS);
+        var journal = PendingLoginJournal.open(directory.resolve("journal"), 16);
+        journal.record(PendingLogin.builder()
+                .id("resumed-login")
+                .userId(USER_ID)
+                .statusLink(NEXT_LINK)
+                .cookie("JSESSIONID=resumed")
+                .deadline(deadline)
+                .lastStatus(LoginStatus.OUTSTANDING_TRANSACTION)
+                .build());
+        var session = new CompletableFuture<LoginSession>();
+        when(statusPoller.poll(any(), eq(NEXT_LINK), eq(deadline), any())).thenAnswer(invocation -> {
+            session.complete(invocation.getArgument(0));
+            return new CompletableFuture<>();
+        });
+
+        restartWith(journal);
+        var response = send(get("/logins/resumed-login"));
+
+        assertThat(response.body()).isEqualTo("{\"id\":\"resumed-login\",\"status\":\"OUTSTANDING_TRANSACTION\",\"finished\":false}");
+        assertThat(session.join().getCookie()).contains("JSESSIONID=resumed");
+        journal.close();
+    }
+
+    @Test
+    public void getLogin_shouldRespondNotFound_forUnknownLogin() throws Exception {
+        var response = send(get("/logins/42"));
+
+        assertThat(response.statusCode()).isEqualTo(404);
+    }
+
+    private void restartWith(PendingLoginJournal journal) throws Exception {
+        service.close();
+        service = LoginService.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), loginAdapter, statusPoller, statusPublisher, journal);
+    }
+
+    private void initiateLoginReturning(LoginStatus status) {
+        var links = new Links(NEXT_LINK);
+        when(loginAdapter.initiateLoginAsync(any(), eq(USER_ID), eq(MOBILE_BANK_ID)))
+                .thenReturn(CompletableFuture.completedFuture(new LoginInitiationResponse(status, links)));
+    }
+
+    private static String loginId(HttpResponse<String> response) {
+        return response.body().replaceAll(".*\"id\":\"([^\"]+)\".*", "$1");
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:%d%s".formatted(service.getPort(), path))).GET().build();
+    }
+
+    private HttpRequest postLogin(String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:%d/logins".formatted(service.getPort())))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,224 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.LoginStatusEvent;
+import com.company.tracing.Span;
+import com.company.tracing.TraceRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginStatusPollerTest {
+
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+    private static final PollingPolicy POLICY = PollingPolicy.builder().interval(Duration.ofMillis(1)).build();
+
+    @Mock
+    private AsyncLoginAdapter loginAdapter;
+
+    private final LoginSession session = new LoginSession();
+    private final List<LoginStatus> intermediateStatuses = new CopyOnWriteArrayList<>();
+    private LoginStatusPoller statusPoller;
+
+    @BeforeEach
+    public void setUp() {
+        statusPoller = new LoginStatusPoller(loginAdapter, POLICY);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        statusPoller.close();
+    }
+
+    @Test
+    public void poll_shouldCompleteWithStatus_when3rdTimeCompleted() {
+        when(loginAdapter.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(
+                status(LoginStatus.CLIENT_NOT_STARTED), status(LoginStatus.OUTSTANDING_TRANSACTION), status(LoginStatus.COMPLETE));
+
+        var loginStatus = statusPoller.poll(session, NEXT_LINK, intermediateStatuses::add).join();
+
+        assertThat(loginStatus).isEqualTo(LoginStatus.COMPLETE);
+        assertThat(intermediateStatuses).containsExactly(LoginStatus.CLIENT_NOT_STARTED, LoginStatus.OUTSTANDING_TRANSACTION);
+        verify(loginAdapter, times(3)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void poll_shouldPublishOnlyStatusChanges() {
+        var statusPublisher = new LoginStatusPublisher(Runnable::run, 16);
+        var subscriber = new LoginStatusPublisherTest.RecordingSubscriber(Long.MAX_VALUE);
+        statusPublisher.subscribe(subscriber);
+        when(loginAdapter.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(
+                status(LoginStatus.CLIENT_NOT_STARTED), status(LoginStatus.CLIENT_NOT_STARTED), status(LoginStatus.OUTSTANDING_TRANSACTION),
+                status(LoginStatus.OUTSTANDING_TRANSACTION), status(LoginStatus.COMPLETE));
+
+        try (var publishingPoller = new LoginStatusPoller(loginAdapter, POLICY, statusPublisher)) {
+            publishingPoller.poll(session, NEXT_LINK, intermediateStatuses::add).join();
+        }
+
+        assertThat(subscriber.events).extracting(event -> event.getPreviousStatus().orElse(null), LoginStatusEvent::getStatus).containsExactly(
+                tuple(null, LoginStatus.CLIENT_NOT_STARTED),
+                tuple(LoginStatus.CLIENT_NOT_STARTED, LoginStatus.OUTSTANDING_TRANSACTION),
+                tuple(LoginStatus.OUTSTANDING_TRANSACTION, LoginStatus.COMPLETE));
+        assertThat(subscriber.events).allSatisfy(event -> {
+            assertThat(event.getSessionId()).isEqualTo(session.getId());
+            assertThat(event.getStatusLink()).isEqualTo(NEXT_LINK);
+        });
+    }
+
+    @Test
+    public void poll_shouldPublishFinishedEvent_whenPollingTimesOut() {
+        var statusPublisher = new LoginStatusPublisher(Runnable::run, 16);
+        var subscriber = new LoginStatusPublisherTest.RecordingSubscriber(Long.MAX_VALUE);
+        statusPublisher.subscribe(subscriber);
+        when(loginAdapter.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(status(LoginStatus.CLIENT_NOT_STARTED));
+
+        try (var publishingPoller = new LoginStatusPoller(loginAdapter, PollingPolicy.builder().interval(Duration.ofMillis(1)).maxAttempts(2).build(), statusPublisher)) {
+            assertThatThrownBy(publishingPoller.poll(session, NEXT_LINK, intermediateStatuses::add)::join)
+                    .hasCauseInstanceOf(TimeoutException.class);
+        }
+
+        assertThat(subscriber.events).extracting(LoginStatusEvent::getStatus, LoginStatusEvent::isFinished, LoginStatusEvent::isTimedOut)
+                .containsExactly(tuple(LoginStatus.CLIENT_NOT_STARTED, false, false), tuple(LoginStatus.CLIENT_NOT_STARTED, true, true));
+        assertThat(subscriber.events.get(1).getError()).contains("Login was not completed after 2 status checks");
+    }
+
+    @Test
+    public void close_shouldClosePublisher() throws Exception {
+        var statusPublisher = new LoginStatusPublisher(Runnable::run, 16);
+        var subscriber = new LoginStatusPublisherTest.RecordingSubscriber(Long.MAX_VALUE);
+        statusPublisher.subscribe(subscriber);
+
+        new LoginStatusPoller(loginAdapter, POLICY, statusPublisher).close();
+
+        assertThat(subscriber.completed.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void poll_shouldTraceWaitsAndStatusChecks_ofTracedSession() {
+        var traceRecorder = new TraceRecorder(10, 1);
+        var tracedSession = new LoginSession(traceRecorder.startTrace());
+        when(loginAdapter.getLoginStatusAsync(tracedSession, NEXT_LINK)).thenReturn(
+                status(LoginStatus.CLIENT_NOT_STARTED), status(LoginStatus.COMPLETE));
+
+        statusPoller.poll(tracedSession, NEXT_LINK, intermediateStatuses::add).join();
+
+        assertThat(traceRecorder.getSpans()).extracting(Span::name, Span::detail).containsExactly(
+                tuple("wait", null), tuple("status check", "#1 CLIENT_NOT_STARTED"),
+                tuple("wait", null), tuple("status check", "#2 COMPLETE"));
+    }
+
+    @Test
+    public void poll_shouldFail_whenPollerIsClosedBeforeNextCheck() {
+        var pendingStatus = new CompletableFuture<LoginStatus>();
+        when(loginAdapter.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(pendingStatus);
+        var loginStatus = statusPoller.poll(session, NEXT_LINK, intermediateStatuses::add);
+        verify(loginAdapter, timeout(1000)).getLoginStatusAsync(session, NEXT_LINK);
+
+        statusPoller.close();
+        pendingStatus.complete(LoginStatus.OUTSTANDING_TRANSACTION);
+
+        assertThatThrownBy(loginStatus::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Login status poller is closed");
+    }
+
+    @Test
+    public void getPendingLogins_shouldCountLogins_untilPollingEnds() {
+        var pendingStatus = new CompletableFuture<LoginStatus>();
+        when(loginAdapter.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(pendingStatus);
+
+        var loginStatus = statusPoller.poll(session, NEXT_LINK, intermediateStatuses::add);
+        verify(loginAdapter, timeout(1000)).getLoginStatusAsync(session, NEXT_LINK);
+        assertThat(statusPoller.getPendingLogins()).isOne();
+        pendingStatus.complete(LoginStatus.COMPLETE);
+
+        assertThat(loginStatus.join()).isEqualTo(LoginStatus.COMPLETE);
+        assertThat(statusPoller.getPendingLogins()).isZero();
+    }
+
+    @Test
+    public void poll_shouldStop_whenLoginIsCancelled() {
+        when(loginAdapter.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(status(LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION));
+
+        var loginStatus = statusPoller.poll(session, NEXT_LINK, intermediateStatuses::add).join();
+
+        assertThat(loginStatus).isEqualTo(LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION);
+        assertThat(intermediateStatuses).isEmpty();
+    }
+
+    @Test
+    public void poll_shouldTimeout_afterMaximum10Attempts() {
+        when(loginAdapter.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(status(LoginStatus.CLIENT_NOT_STARTED));
+
+        var result = statusPoller.poll(session, NEXT_LINK, intermediateStatuses::add);
+
+        assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(intermediateStatuses).hasSize(10);
+        verify(loginAdapter, times(10)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void poll_shouldTimeoutWithoutChecking_whenDeadlineHasPassed() {
+        var result = statusPoller.poll(session, NEXT_LINK, Instant.now().minusSeconds(1), intermediateStatuses::add);
+
+        assertThatThrownBy(result::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        verify(loginAdapter, never()).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void poll_shouldFail_whenStatusRequestFails() {
+        var errorMessage = "error message";
+        when(loginAdapter.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException(errorMessage)));
+
+        var result = statusPoller.poll(session, NEXT_LINK, intermediateStatuses::add);
+
+        assertThatThrownBy(result::join)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage(errorMessage);
+    }
+
+    @Test
+    public void delayBeforeAttempt_shouldBackOff_upToMaxInterval() {
+        var policy = PollingPolicy.builder()
+                .interval(Duration.ofMillis(100))
+                .backoffMultiplier(2)
+                .maxInterval(Duration.ofMillis(300))
+                .build();
+
+        assertThat(policy.delayBeforeAttempt(0)).isEqualTo(Duration.ofMillis(100));
+        assertThat(policy.delayBeforeAttempt(1)).isEqualTo(Duration.ofMillis(200));
+        assertThat(policy.delayBeforeAttempt(2)).isEqualTo(Duration.ofMillis(300));
+    }
+
+    private static CompletableFuture<LoginStatus> status(LoginStatus status) {
+        return CompletableFuture.completedFuture(status);
+    }
+}
@@ -0,0 +1,112 @@
+package com.company;
+
+import com.company.beans.LoginStatus;
+import com.company.beans.LoginStatusEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoginStatusPublisherTest {
+
+    private final LoginStatusPublisher publisher = new LoginStatusPublisher(Runnable::run, 2);
+
+    @AfterEach
+    public void tearDown() {
+        publisher.close();
+    }
+
+    @Test
+    public void publish_shouldDeliverEventsToEverySubscriber() {
+        var first = new RecordingSubscriber(Long.MAX_VALUE);
+        var second = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        publisher.publish(event(LoginStatus.OUTSTANDING_TRANSACTION));
+        publisher.publish(event(LoginStatus.COMPLETE));
+
+        assertThat(first.events).extracting(LoginStatusEvent::getStatus).containsExactly(LoginStatus.OUTSTANDING_TRANSACTION, LoginStatus.COMPLETE);
+        assertThat(second.events).extracting(LoginStatusEvent::getStatus).containsExactly(LoginStatus.OUTSTANDING_TRANSACTION, LoginStatus.COMPLETE);
+    }
+
+    @Test
+    public void publish_shouldDeliverOnlyRequestedEvents_andDropThoseOverBuffer() {
+        var subscriber = new RecordingSubscriber(1);
+        publisher.subscribe(subscriber);
+
+        for (int i = 0; i < 5; i++) {
+            publisher.publish(event(LoginStatus.OUTSTANDING_TRANSACTION));
+        }
+
+        assertThat(subscriber.events).hasSize(1);
+        assertThat(publisher.getDroppedEvents()).isEqualTo(2);
+
+        subscriber.subscription.request(10);
+
+        assertThat(subscriber.events).hasSize(3);
+    }
+
+    @Test
+    public void close_shouldCompleteSubscriptions() throws Exception {
+        var subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+
+        publisher.close();
+        publisher.publish(event(LoginStatus.COMPLETE));
+
+        assertThat(subscriber.completed.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.events).isEmpty();
+    }
+
+    @Test
+    public void hasSubscribers_shouldBeFalse_withoutSubscribers() {
+        assertThat(publisher.hasSubscribers()).isFalse();
+
+        publisher.subscribe(new RecordingSubscriber(1));
+
+        assertThat(publisher.hasSubscribers()).isTrue();
+    }
+
+    private static LoginStatusEvent event(LoginStatus status) {
+        return LoginStatusEvent.builder().sessionId(1).status(status).build();
+    }
+
+    static class RecordingSubscriber implements Flow.Subscriber<LoginStatusEvent> {
+        final List<LoginStatusEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final long initialDemand;
+        Flow.Subscription subscription;
+
+        RecordingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(LoginStatusEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
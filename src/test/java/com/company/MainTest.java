@@ -1,15 +1,35 @@
 package com.company;
 
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.PendingLogin;
+import com.company.metrics.LoginMetrics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.management.MBeanServerFactory;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.Scanner;
-
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -71,4 +91,59 @@ public class MainTest {
         verify(printStream).println(RETRY_MESSAGE);
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void createLoginAdapter_shouldStartQueuedInitiation_beforeQueuedStatusPolls() {
+        var bank = mock(AsyncLoginAdapter.class);
+        var statusResponses = new CopyOnWriteArrayList<CompletableFuture<LoginStatus>>();
+        when(bank.getLoginStatusAsync(any(), any())).thenAnswer(invocation -> {
+            var response = new CompletableFuture<LoginStatus>();
+            statusResponses.add(response);
+            return response;
+        });
+        when(bank.initiateLoginAsync(any(), any(), any())).thenReturn(new CompletableFuture<>());
+        var loginAdapter = Main.createLoginAdapter(bank, false, new LoginMetrics(), MBeanServerFactory.newMBeanServer());
+        var method = AuthenticationMethod.builder().code(AuthenticationCode.BANKID_MOBILE).location(new Link("POST", "/mobile")).build();
+
+        for (int i = 0; i < 500; i++) {
+            loginAdapter.getLoginStatusAsync(new LoginSession(), new Link("GET", "/status"));
+        }
+        loginAdapter.initiateLoginAsync(new LoginSession(), "191212121212", method);
+        var sentStatusPolls = statusResponses.size();
+        statusResponses.get(0).complete(LoginStatus.OUTSTANDING_TRANSACTION);
+
+        verify(bank, timeout(1000)).initiateLoginAsync(any(), eq("191212121212"), eq(method));
+        assertThat(statusResponses).hasSize(sentStatusPolls);
+    }
+
+    @Test
+    public void createLoginAdapter_shouldCancelLosingBankRequest_whenHedgeWins() {
+        var bank = mock(AsyncLoginAdapter.class);
+        var slowSession = new LoginSession();
+        var slowResponse = new CompletableFuture<LoginStatus>();
+        var slowRequestSent = new AtomicBoolean();
+        when(bank.getLoginStatusAsync(any(), any())).thenAnswer(invocation -> invocation.getArgument(0) == slowSession && slowRequestSent.compareAndSet(false, true)
+                ? slowResponse : CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+        var loginAdapter = Main.createLoginAdapter(bank, true, new LoginMetrics(), MBeanServerFactory.newMBeanServer());
+        // every status request adds to the hedging budget, these pay for one hedge
+        for (int i = 0; i < 20; i++) {
+            loginAdapter.getLoginStatusAsync(new LoginSession(), new Link("GET", "/status")).join();
+        }
+
+        var status = loginAdapter.getLoginStatusAsync(slowSession, new Link("GET", "/status")).join();
+
+        assertThat(status).isEqualTo(LoginStatus.COMPLETE);
+        // the loser is cancelled right after the winner completed the result
+        assertThatThrownBy(() -> slowResponse.get(1, TimeUnit.SECONDS)).isInstanceOf(CancellationException.class);
+        verify(bank, times(2)).getLoginStatusAsync(eq(slowSession), any());
+    }
+
+    @Test
+    public void openJournal_shouldNotKeepLogins_whenJournalCannotBeOpened(@TempDir Path directory) throws Exception {
+        var journal = Main.openJournal(directory.toString());
+
+        journal.record(PendingLogin.builder().id("1").userId("191212121212").statusLink(new Link("GET", "/status")).build());
+
+        assertThat(journal.getPendingLogins()).isEmpty();
+    }
+}
@@ -0,0 +1,210 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import com.company.beans.PendingLogin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PendingLoginJournalTest {
+
+    private static final Instant NOW = Instant.parse("2023-05-01T10:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void open_shouldReplayPendingLogins_afterRestart() throws Exception {
+        var file = directory.resolve("journal");
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            journal.record(pendingLogin("1", "/status/1"));
+            journal.record(pendingLogin("2", "/status/2"));
+            journal.record(pendingLogin("1", "/status/1").toBuilder().lastStatus(LoginStatus.OUTSTANDING_TRANSACTION).cookie("JSESSIONID=2").build());
+        }
+
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            assertThat(journal.getPendingLogins()).containsExactly(
+                    pendingLogin("1", "/status/1").toBuilder().lastStatus(LoginStatus.OUTSTANDING_TRANSACTION).cookie("JSESSIONID=2").build(),
+                    pendingLogin("2", "/status/2"));
+        }
+    }
+
+    @Test
+    public void open_shouldNotReplayRemovedOrExpiredLogins() throws Exception {
+        var file = directory.resolve("journal");
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            journal.record(pendingLogin("1", "/status/1"));
+            journal.record(pendingLogin("2", "/status/2").toBuilder().deadline(NOW.minusSeconds(1)).build());
+            journal.record(pendingLogin("3", "/status/3"));
+            journal.remove("1");
+        }
+
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            assertThat(journal.getPendingLogins()).extracting(PendingLogin::getUserId).containsExactly("3");
+        }
+    }
+
+    @Test
+    public void open_shouldStopReplay_atRecordTornByCrash() throws Exception {
+        var file = directory.resolve("journal");
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            journal.record(pendingLogin("1", "/status/1"));
+            journal.record(pendingLogin("2", "/status/2"));
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), PendingLoginJournal.RECORD_SIZE + 20);
+        }
+
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            assertThat(journal.getPendingLogins()).extracting(PendingLogin::getUserId).containsExactly("1");
+            journal.record(pendingLogin("3", "/status/3"));
+        }
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            assertThat(journal.getPendingLogins()).extracting(PendingLogin::getUserId).containsExactly("1", "3");
+        }
+    }
+
+    @Test
+    public void record_shouldCompact_whenJournalIsFull() throws Exception {
+        var file = directory.resolve("journal");
+        try (var journal = PendingLoginJournal.open(file, 4, CLOCK)) {
+            for (int i = 0; i < 20; i++) {
+                journal.record(pendingLogin("1", "/status/1").toBuilder().lastStatus(LoginStatus.OUTSTANDING_TRANSACTION).build());
+            }
+            journal.record(pendingLogin("2", "/status/2"));
+        }
+
+        assertThat(Files.size(file)).isEqualTo(4L * PendingLoginJournal.RECORD_SIZE);
+        try (var journal = PendingLoginJournal.open(file, 4, CLOCK)) {
+            assertThat(journal.getPendingLogins()).extracting(PendingLogin::getUserId).containsExactly("1", "2");
+        }
+    }
+
+    @Test
+    public void record_shouldGrowJournal_whenLiveLoginsTakeMoreThanHalf() throws Exception {
+        var file = directory.resolve("journal");
+        try (var journal = PendingLoginJournal.open(file, 4, CLOCK)) {
+            for (int i = 0; i < 10; i++) {
+                journal.record(pendingLogin(String.valueOf(i), "/status/" + i));
+            }
+        }
+
+        try (var journal = PendingLoginJournal.open(file, 4, CLOCK)) {
+            assertThat(journal.getPendingLogins()).hasSize(10);
+        }
+    }
+
+    @Test
+    public void record_shouldRejectLogin_thatDoesNotFitIntoRecord() throws Exception {
+        try (var journal = PendingLoginJournal.open(directory.resolve("journal"), 4, CLOCK)) {
+            var pendingLogin = pendingLogin("1", "/status/" + "x".repeat(PendingLoginJournal.RECORD_SIZE));
+
+            assertThatThrownBy(() -> journal.record(pendingLogin))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("Pending login of user 1 does not fit into a journal record");
+            assertThat(journal.getPendingLogins()).isEmpty();
+        }
+    }
+
+    @Test
+    public void remove_shouldKeepOtherLogins_withSameStatusLink() throws Exception {
+        var file = directory.resolve("journal");
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            journal.record(pendingLogin("1", "/status"));
+            journal.record(pendingLogin("2", "/status"));
+            journal.remove("1");
+        }
+
+        try (var journal = PendingLoginJournal.open(file, 16, CLOCK)) {
+            assertThat(journal.getPendingLogins()).containsExactly(pendingLogin("2", "/status"));
+        }
+    }
+
+    @Test
+    public void open_shouldCompactPeriodically_droppingExpiredLogins() throws Exception {
+        try (var journal = PendingLoginJournal.open(directory.resolve("journal"), 16, CLOCK, Duration.ofMillis(10))) {
+            journal.record(pendingLogin("1", "/status/1").toBuilder().deadline(NOW.minusSeconds(1)).build());
+            journal.record(pendingLogin("2", "/status/2"));
+
+            for (int i = 0; i < 200 && journal.getPendingLogins().size() > 1; i++) {
+                Thread.sleep(10);
+            }
+            assertThat(journal.getPendingLogins()).extracting(PendingLogin::getUserId).containsExactly("2");
+        }
+    }
+
+    @Test
+    public void compact_shouldKeepLoginsRecorded_whileCompacting() throws Exception {
+        var file = directory.resolve("journal");
+        try (var journal = PendingLoginJournal.open(file, 64, CLOCK)) {
+            var recording = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    try {
+                        journal.record(pendingLogin(String.valueOf(i % 20), "/status/" + i % 20));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            while (!recording.isDone()) {
+                journal.compact();
+            }
+            recording.join();
+        }
+
+        try (var journal = PendingLoginJournal.open(file, 64, CLOCK)) {
+            assertThat(journal.getPendingLogins()).hasSize(20);
+        }
+    }
+
+    @Test
+    public void open_shouldCreateJournal_readableByOwnerOnly() throws Exception {
+        assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        var file = directory.resolve("journal");
+
+        try (var journal = PendingLoginJournal.open(file, 4, CLOCK)) {
+            journal.record(pendingLogin("1", "/status/1"));
+        }
+
+        assertThat(Files.getPosixFilePermissions(file)).containsExactlyInAnyOrder(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+    }
+
+    @Test
+    public void disabled_shouldKeepNothing() throws Exception {
+        var journal = PendingLoginJournal.disabled();
+
+        journal.record(pendingLogin("1", "/status/1"));
+
+        assertThat(journal.getPendingLogins()).isEmpty();
+    }
+
+    private static PendingLogin pendingLogin(String userId, String statusUri) {
+        return PendingLogin.builder()
+                .id(userId)
+                .userId(userId)
+                .statusLink(new Link("GET", statusUri))
+                .cookie("JSESSIONID=" + userId)
+                .deadline(NOW.plusSeconds(180))
+                .lastStatus(LoginStatus.CLIENT_NOT_STARTED)
+                .build();
+    }
+}
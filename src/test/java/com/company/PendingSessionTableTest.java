@@ -0,0 +1,111 @@
+package com.company;
+
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PendingSessionTableTest {
+
+    private static final long DEADLINE = 180_000_000_000L;
+    private static final Link STATUS_LINK = new Link("GET", "/api/v5/identification/bankid/mobile/verify");
+
+    private final PendingSessionTable table = new PendingSessionTable(2);
+
+    @Test
+    public void add_shouldStoreLogin_underReturnedHandle() {
+        var handle = table.add(STATUS_LINK, DEADLINE);
+
+        assertThat(table.size()).isEqualTo(1);
+        assertThat(table.getStatus(handle)).isNull();
+        assertThat(table.getAttempts(handle)).isZero();
+        assertThat(table.getDeadline(handle)).isEqualTo(DEADLINE);
+        assertThat(table.getStatusLink(handle)).isEqualTo(STATUS_LINK);
+    }
+
+    @Test
+    public void add_shouldShareStatusLink_ofLoginsPollingEqualLinks() {
+        var first = table.add(new Link("GET", "/status"), DEADLINE);
+        var second = table.add(new Link("GET", "/status"), DEADLINE);
+
+        assertThat(table.getStatusLink(second)).isSameAs(table.getStatusLink(first));
+    }
+
+    @Test
+    public void add_shouldKeepLoginsApart_whenTableGrows() {
+        var handles = IntStream.range(0, 1000).map(i -> table.add(STATUS_LINK, i)).toArray();
+
+        assertThat(table.size()).isEqualTo(1000);
+        for (int i = 0; i < handles.length; i++) {
+            assertThat(table.getDeadline(handles[i])).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void add_shouldGiveUniqueHandles_whenAddingFromManyThreads() {
+        var handles = ConcurrentHashMap.<Integer>newKeySet();
+        var adding = IntStream.range(0, 8)
+                .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        var handle = table.add(STATUS_LINK, DEADLINE);
+                        table.startAttempt(handle);
+                        handles.add(handle);
+                    }
+                }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(adding).join();
+
+        assertThat(handles).hasSize(8000);
+        assertThat(table.size()).isEqualTo(8000);
+        assertThat(handles).allSatisfy(handle -> assertThat(table.getAttempts(handle)).isOne());
+    }
+
+    @Test
+    public void remove_shouldReuseHandle_andKeepOtherLogins() {
+        var removed = table.add(STATUS_LINK, 1);
+        var kept = table.add(STATUS_LINK, 2);
+
+        table.remove(removed);
+
+        assertThat(table.contains(removed)).isFalse();
+        assertThat(table.add(STATUS_LINK, 3)).isEqualTo(removed);
+        assertThat(table.getDeadline(kept)).isEqualTo(2);
+        assertThat(table.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void updateStatus_shouldReturnPreviousStatus() {
+        var handle = table.add(STATUS_LINK, DEADLINE);
+
+        assertThat(table.updateStatus(handle, LoginStatus.CLIENT_NOT_STARTED)).isNull();
+        assertThat(table.updateStatus(handle, LoginStatus.COMPLETE)).isEqualTo(LoginStatus.CLIENT_NOT_STARTED);
+        assertThat(table.getStatus(handle)).isEqualTo(LoginStatus.COMPLETE);
+    }
+
+    @Test
+    public void startAttempt_shouldCountStatusChecks() {
+        var handle = table.add(STATUS_LINK, DEADLINE);
+
+        table.startAttempt(handle);
+        table.startWait(handle, 42);
+
+        assertThat(table.startAttempt(handle)).isEqualTo(2);
+        assertThat(table.getWaitStart(handle)).isEqualTo(42);
+    }
+
+    @Test
+    public void getStatus_shouldThrowException_whenLoginWasRemoved() {
+        var handle = table.add(STATUS_LINK, DEADLINE);
+        table.remove(handle);
+
+        assertThatThrownBy(() -> table.getStatus(handle))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("No pending session with handle " + handle);
+    }
+}
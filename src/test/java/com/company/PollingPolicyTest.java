@@ -0,0 +1,33 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PollingPolicyTest {
+
+    @Test
+    public void getMaxDuration_shouldAddUpDelaysOfAllAttempts() {
+        var policy = PollingPolicy.builder()
+                .interval(Duration.ofSeconds(1))
+                .backoffMultiplier(2)
+                .maxInterval(Duration.ofSeconds(5))
+                .maxAttempts(5)
+                .build();
+
+        assertThat(policy.getMaxDuration()).isEqualTo(Duration.ofSeconds(1 + 2 + 4 + 5 + 5));
+    }
+
+    @Test
+    public void getMaxDuration_shouldBeCappedByDeadline() {
+        var policy = PollingPolicy.builder()
+                .interval(Duration.ofSeconds(10))
+                .maxAttempts(100)
+                .deadline(Duration.ofSeconds(30))
+                .build();
+
+        assertThat(policy.getMaxDuration()).isEqualTo(Duration.ofSeconds(30));
+    }
+}
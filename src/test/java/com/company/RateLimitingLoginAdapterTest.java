@@ -0,0 +1,113 @@
+package com.company;
+
+import com.company.beans.AdapterOperation;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.timeout;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitingLoginAdapterTest {
+
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+
+    @Mock
+    private AsyncLoginAdapter delegate;
+
+    private final LoginSession session = new LoginSession();
+
+    @Test
+    public void getLoginStatus_shouldFailFast_whenQuotaIsUsedAndWaitingIsNotAllowed() {
+        var loginAdapter = new RateLimitingLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new TokenBucket(1, 1)), Duration.ZERO);
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        assertThat(loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join()).isEqualTo(LoginStatus.COMPLETE);
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("STATUS rate limit exceeded");
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldDelayRequest_untilPermitIsDue() {
+        var loginAdapter = new RateLimitingLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new TokenBucket(20, 1)), Duration.ofSeconds(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+        var start = System.nanoTime();
+        var delayed = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        assertThat(delayed.join()).isEqualTo(LoginStatus.COMPLETE);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(40));
+        verify(delegate, times(2)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotCallDelegate_beforePermitIsDue() {
+        var loginAdapter = new RateLimitingLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new TokenBucket(0.1, 1)), Duration.ofMinutes(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+        var delayed = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+
+        assertThat(delayed).isNotDone();
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void operationsWithoutBucket_shouldNotBeLimited() {
+        var loginAdapter = new RateLimitingLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new TokenBucket(1, 1)), Duration.ZERO);
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(CompletableFuture.completedFuture(AuthenticationMethodCatalog.of(List.of())));
+
+        for (int i = 0; i < 5; i++) {
+            loginAdapter.getAllLoginMethodsAsync().join();
+        }
+
+        verify(delegate, times(5)).getAllLoginMethodsAsync();
+        verify(delegate, never()).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotSendRequest_whenCancelledBeforePermitIsDue() throws InterruptedException {
+        var loginAdapter = new RateLimitingLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new TokenBucket(20, 1)), Duration.ofSeconds(1));
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).cancel(true);
+        Thread.sleep(150);
+
+        verify(delegate, times(1)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldCancelSentRequest_whenDelayedRequestIsCancelled() {
+        var loginAdapter = new RateLimitingLoginAdapter(delegate, Map.of(AdapterOperation.STATUS, new TokenBucket(20, 1)), Duration.ofSeconds(1));
+        var response = new CompletableFuture<LoginStatus>();
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.completedFuture(LoginStatus.COMPLETE), response);
+
+        loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+        var delayed = loginAdapter.getLoginStatusAsync(session, NEXT_LINK);
+        verify(delegate, timeout(1000).times(2)).getLoginStatusAsync(session, NEXT_LINK);
+        delayed.cancel(true);
+
+        assertThat(response).isCancelled();
+    }
+}
@@ -0,0 +1,67 @@
+package com.company;
+
+import com.company.beans.Link;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RequestTemplatesTest {
+
+    private static final String BASE_PATH = "https://bank.example/api";
+    private static final Map<String, String> HEADERS = Map.of("X-Client", "test");
+    private static final Link GET_LINK = new Link("GET", "/status/1");
+    private static final Link POST_LINK = new Link("POST", "/login");
+
+    private final RequestTemplates requestTemplates = new RequestTemplates(BASE_PATH, HEADERS, 2);
+
+    @Test
+    public void get_shouldBuildRequest_withResolvedUriMethodAndHeaders() throws Exception {
+        var request = requestTemplates.get(GET_LINK).newRequest(Optional.empty()).build();
+
+        assertThat(request.uri().toString()).isEqualTo(BASE_PATH + GET_LINK.getUri());
+        assertThat(request.method()).isEqualTo("GET");
+        assertThat(request.headers().firstValue("X-Client")).contains("test");
+    }
+
+    @Test
+    public void get_shouldBuildPostRequest_withBody() throws Exception {
+        var body = HttpRequest.BodyPublishers.ofString("body");
+
+        var request = requestTemplates.get(POST_LINK).newRequest(Optional.of(body)).build();
+
+        assertThat(request.method()).isEqualTo("POST");
+        assertThat(request.bodyPublisher()).contains(body);
+    }
+
+    @Test
+    public void get_shouldReuseCompiledTemplate_forEqualLink() throws Exception {
+        var template = requestTemplates.get(GET_LINK);
+
+        assertThat(requestTemplates.get(new Link("GET", "/status/1"))).isSameAs(template);
+    }
+
+    @Test
+    public void get_shouldKeepCachedTemplates_andNotCacheNewLinks_whenFull() throws Exception {
+        var getTemplate = requestTemplates.get(GET_LINK);
+        var postTemplate = requestTemplates.get(POST_LINK);
+        var otherLink = new Link("GET", "/status/2");
+
+        var otherTemplate = requestTemplates.get(otherLink);
+
+        assertThat(requestTemplates.get(otherLink)).isNotSameAs(otherTemplate);
+        assertThat(requestTemplates.get(GET_LINK)).isSameAs(getTemplate);
+        assertThat(requestTemplates.get(POST_LINK)).isSameAs(postTemplate);
+    }
+
+    @Test
+    public void get_shouldThrowException_whenRequestMethodIsNotSupported() {
+        assertThatThrownBy(() -> requestTemplates.get(new Link("PUT", "/login")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("PUT request method is not supported");
+    }
+}
@@ -0,0 +1,149 @@
+package com.company;
+
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.LoginStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ResilientLoginAdapterTest {
+
+    private static final Link NEXT_LINK = new Link("GET", "/next");
+    private static final AuthenticationMethod LOGIN_METHOD = AuthenticationMethod.builder().location(new Link("POST", "/uri")).build();
+    private static final RetryPolicy RETRY_POLICY = RetryPolicy.builder().baseDelay(Duration.ofMillis(1)).build();
+
+    @Mock
+    private AsyncLoginAdapter delegate;
+
+    private final LoginSession session = new LoginSession();
+    private CircuitBreaker circuitBreaker;
+    private ResilientLoginAdapter loginAdapter;
+
+    @BeforeEach
+    public void setUp() {
+        circuitBreaker = new CircuitBreaker(10, 5, 0.5, Duration.ofMinutes(1), 1);
+        loginAdapter = new ResilientLoginAdapter(delegate, circuitBreaker, RETRY_POLICY);
+    }
+
+    @Test
+    public void getLoginStatus_shouldRetry_untilRequestSucceeds() {
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(
+                failed(), failed(), CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        var loginStatus = loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join();
+
+        assertThat(loginStatus).isEqualTo(LoginStatus.COMPLETE);
+        verify(delegate, times(3)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldFail_afterMaxAttempts() {
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(failed());
+
+        assertThatThrownBy(() -> loginAdapter.getAllLoginMethodsAsync().join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("Service unavailable");
+        verify(delegate, times(3)).getAllLoginMethodsAsync();
+    }
+
+    @Test
+    public void initiateLogin_shouldNotBeRetried() {
+        when(delegate.initiateLoginAsync(session, "user", LOGIN_METHOD)).thenReturn(failed());
+
+        assertThatThrownBy(() -> loginAdapter.initiateLoginAsync(session, "user", LOGIN_METHOD).join())
+                .hasRootCauseMessage("Service unavailable");
+        verify(delegate, times(1)).initiateLoginAsync(session, "user", LOGIN_METHOD);
+    }
+
+    @Test
+    public void allMethods_shouldFailFast_whenCircuitIsOpen() {
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(failed());
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> loginAdapter.getAllLoginMethodsAsync().join());
+        }
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join())
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Bank API is unavailable, circuit breaker is open");
+        verify(delegate, never()).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldRetry_afterTimeout() {
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(
+                CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")), CompletableFuture.completedFuture(LoginStatus.COMPLETE));
+
+        assertThat(loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join()).isEqualTo(LoginStatus.COMPLETE);
+        verify(delegate, times(2)).getLoginStatusAsync(session, NEXT_LINK);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotRetryNorOpenCircuit_whenBankRejectsRequest() {
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.failedFuture(new BankApiException(400, "Invalid user id")));
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join())
+                    .hasRootCauseInstanceOf(BankApiException.class)
+                    .hasRootCauseMessage("Invalid user id");
+        }
+
+        verify(delegate, times(10)).getLoginStatusAsync(session, NEXT_LINK);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotRetryNorOpenCircuit_whenRequestIsShedLocally() {
+        when(delegate.getLoginStatusAsync(session, NEXT_LINK)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("STATUS bulkhead is full")));
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, NEXT_LINK).join())
+                    .hasRootCauseMessage("STATUS bulkhead is full");
+        }
+
+        verify(delegate, times(10)).getLoginStatusAsync(session, NEXT_LINK);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldRecordSuccess() {
+        when(delegate.getAllLoginMethodsAsync()).thenReturn(CompletableFuture.completedFuture(AuthenticationMethodCatalog.of(List.of())));
+
+        loginAdapter.getAllLoginMethodsAsync().join();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    public void delayBeforeRetry_shouldStayWithinExponentialCeiling() {
+        var retryPolicy = RetryPolicy.builder().baseDelay(Duration.ofMillis(100)).maxDelay(Duration.ofMillis(300)).build();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.delayBeforeRetry(1)).isLessThanOrEqualTo(Duration.ofMillis(100));
+            assertThat(retryPolicy.delayBeforeRetry(2)).isLessThanOrEqualTo(Duration.ofMillis(200));
+            assertThat(retryPolicy.delayBeforeRetry(5)).isLessThanOrEqualTo(Duration.ofMillis(300));
+        }
+    }
+
+    private static <T> CompletableFuture<T> failed() {
+        return CompletableFuture.failedFuture(new BankApiException(503, "Service unavailable"));
+    }
+}
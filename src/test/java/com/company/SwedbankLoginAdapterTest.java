@@ -1,16 +1,15 @@
 package com.company;
 
+import com.company.beans.AdapterOperation;
+import com.company.beans.AuthenticationCode;
 import com.company.beans.AuthenticationMethod;
-import com.company.beans.ErrorMessages;
-import com.company.beans.FieldError;
 import com.company.beans.Link;
+import com.company.beans.Links;
 import com.company.beans.LoginStatus;
 import com.company.beans.RequestMethod;
-import com.company.beans.dto.AuthenticationMethodsResponse;
-import com.company.beans.dto.HttpException;
 import com.company.beans.dto.LoginInitiationResponse;
-import com.company.beans.dto.MobileBankIDRequest;
-import com.google.gson.Gson;
+import com.company.metrics.EndpointMetrics;
+import com.company.metrics.LoginMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,9 +18,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
@@ -29,8 +26,14 @@ import java.net.http.HttpClient;
 import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -38,6 +41,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -45,140 +49,253 @@ import static org.mockito.Mockito.when;
 public class SwedbankLoginAdapterTest {
 
     private static final String USER_ID = "191010101010";
-    private static final AuthenticationMethod LOGIN_METHOD = AuthenticationMethod.builder().location(new Link("POST", "uri")).build();
-    private static final String RESPONSE_BODY = "response body";
-    private static final String REQUEST_BODY = "request body";
+    private static final AuthenticationMethod LOGIN_METHOD = AuthenticationMethod.builder()
+            .message("Mobile BankID").code(AuthenticationCode.BANKID_MOBILE).location(new Link("POST", "/uri")).build();
     private static final Link GET_LINK = new Link(RequestMethod.GET.toString(), "/request/path");
+    private static final String SESSION_COOKIE = "JSESSIONID=session-id";
+    private static final String ETAG = "\"catalog-v1\"";
+    private static final String METHODS_BODY = """
+            {"authenticationMethods":[{"message":"Mobile BankID","code":"BANKID_MOBILE","location":{"method":"POST","uri":"/uri"}}]}""";
+    private static final String LOGIN_BODY = """
+            {"status":"CLIENT_NOT_STARTED","links":{"next":{"method":"GET","uri":"/request/path"}}}""";
+    private static final String ERROR_BODY = """
+            {"errorMessages":{"fields":[{"message":"Bad error"},{"message":"Worse error"}]}}""";
 
-    @Mock
-    private Gson gson;
     @Mock
     private HttpClient httpClient;
     @Mock
     private HttpResponse httpResponse;
     @Mock
     private HttpHeaders httpHeader;
-    @Mock
-    private HttpException httpException;
-    @Mock
-    private ErrorMessages errorMessages;
-    @Mock
-    private FieldError fieldError1;
-    @Mock
-    private FieldError fieldError2;
-    @Mock
-    private AuthenticationMethodsResponse methodsResponse;
 
     @Captor
     ArgumentCaptor<HttpRequest> requestCaptor;
 
-    @InjectMocks
+    private LoginMetrics metrics;
     private SwedbankLoginAdapter loginAdapter;
 
     @BeforeEach
     public void setUp() throws Exception {
-        when(httpClient.send(any(), any())).thenReturn(httpResponse);
-        when(httpResponse.headers()).thenReturn(httpHeader);
-        when(httpResponse.body()).thenReturn(RESPONSE_BODY);
+        metrics = new LoginMetrics();
+        loginAdapter = new SwedbankLoginAdapter(httpClient, SwedbankLoginAdapter.DEFAULT_BASE_PATH, metrics);
+        when(httpClient.sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(httpResponse));
+        lenient().when(httpResponse.headers()).thenReturn(httpHeader);
+        lenient().when(httpHeader.firstValue(any())).thenReturn(Optional.empty());
         when(httpResponse.statusCode()).thenReturn(200);
     }
 
     @Test
     public void getAllLoginMethods_shouldGetAuthenticationMethods() throws Exception {
-        mockForGetAllLoginMethods();
-        var expected = Mockito.mock(List.class);
-        when(methodsResponse.getAuthenticationMethods()).thenReturn(expected);
+        mockResponseBody(METHODS_BODY);
 
-        var methods = loginAdapter.getAllLoginMethods();
+        var methods = loginAdapter.getAllLoginMethodsAsync().join();
 
-        assertThat(methods).isEqualTo(expected);
+        assertThat(methods.getMethods()).containsExactly(LOGIN_METHOD);
+        assertThat(methods.find(AuthenticationCode.BANKID_MOBILE)).contains(LOGIN_METHOD);
+    }
+
+    @Test
+    public void getAllLoginMethods_shouldRevalidateWithEtag_andReuseMethodsWhenNotModified() {
+        mockResponseBody(METHODS_BODY);
+        when(httpHeader.firstValue("ETag")).thenReturn(Optional.of(ETAG));
+
+        loginAdapter.getAllLoginMethodsAsync().join();
+        when(httpResponse.statusCode()).thenReturn(304);
+        var methods = loginAdapter.getAllLoginMethodsAsync().join();
+
+        assertThat(methods.getMethods()).containsExactly(LOGIN_METHOD);
+        verify(httpClient, times(2)).sendAsync(requestCaptor.capture(), any());
+        assertThat(requestCaptor.getAllValues().get(0).headers().firstValue("If-None-Match")).isEmpty();
+        assertThat(requestCaptor.getAllValues().get(1).headers().firstValue("If-None-Match")).contains(ETAG);
     }
 
     @Test
     public void getLoginStatus_shouldGetStatusOfLogin() throws Exception {
-        LoginStatus expectedStatus = LoginStatus.CLIENT_NOT_STARTED;
-        var loginInitiationResponse = getMockedLoginInitiationResponse();
-        when(loginInitiationResponse.getStatus()).thenReturn(expectedStatus);
+        mockResponseBody(LOGIN_BODY);
 
-        var loginStatus = loginAdapter.getLoginStatus(GET_LINK);
+        var loginStatus = loginAdapter.getLoginStatusAsync(new LoginSession(), GET_LINK).join();
 
-        assertThat(loginStatus).isEqualTo(expectedStatus);
+        assertThat(loginStatus).isEqualTo(LoginStatus.CLIENT_NOT_STARTED);
     }
 
     @Test
     public void initiateLogin_shouldGetCorrectlyMapResponse() throws Exception {
-        var loginInitiationResponse = getMockedLoginInitiationResponse();
-        mockForLoginInitiation();
+        mockResponseBody(LOGIN_BODY);
 
-        var response = loginAdapter.initiateLogin(USER_ID, LOGIN_METHOD);
+        var response = loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, LOGIN_METHOD).join();
 
-        assertThat(response).isEqualTo(loginInitiationResponse);
+        assertThat(response).isEqualTo(new LoginInitiationResponse(LoginStatus.CLIENT_NOT_STARTED, new Links(GET_LINK)));
     }
 
     @Test
     public void getAllLoginMethods_shouldCallWithCorrectlyFormedRequest() throws Exception {
-        mockForGetAllLoginMethods();
-        loginAdapter.getAllLoginMethods();
+        mockResponseBody(METHODS_BODY);
+        loginAdapter.getAllLoginMethodsAsync().join();
 
         verifyRequest(new Link(RequestMethod.GET.toString(), "/v5/identification/"));
     }
 
     @Test
     public void getLoginStatus_shouldCallWithCorrectlyFormedRequest() throws Exception {
-        getMockedLoginInitiationResponse();
+        mockResponseBody(LOGIN_BODY);
 
-        loginAdapter.getLoginStatus(GET_LINK);
+        loginAdapter.getLoginStatusAsync(new LoginSession(), GET_LINK).join();
 
         verifyRequest(GET_LINK);
     }
 
     @Test
     public void initiateLogin_shouldCallWithCorrectlyFormedRequest() throws Exception {
-        mockForLoginInitiation();
+        mockResponseBody(LOGIN_BODY);
+
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, LOGIN_METHOD).join();
+
+        verifyRequest(LOGIN_METHOD.getLocation(), Optional.of("{\"bankIdOnSameDevice\":false,\"userId\":\"%s\"}".formatted(USER_ID)));
+    }
+
+    @Test
+    public void getLoginStatus_shouldStoreSessionCookie_andSendItWithNextRequest() {
+        mockResponseBody(LOGIN_BODY);
+        when(httpHeader.map()).thenReturn(Map.of("set-cookie", List.of(SESSION_COOKIE + "; Path=/; Secure")));
+        var session = new LoginSession();
+
+        loginAdapter.getLoginStatusAsync(session, GET_LINK).join();
+        loginAdapter.getLoginStatusAsync(session, GET_LINK).join();
+
+        assertThat(session.getCookie()).contains(SESSION_COOKIE);
+        verify(httpClient, times(2)).sendAsync(requestCaptor.capture(), any());
+        assertThat(requestCaptor.getAllValues().get(0).headers().firstValue("Cookie")).isEmpty();
+        assertThat(requestCaptor.getAllValues().get(1).headers().firstValue("Cookie")).contains(SESSION_COOKIE);
+    }
+
+    @Test
+    public void getLoginStatus_shouldNotShareSessionCookie_betweenSessions() {
+        mockResponseBody(LOGIN_BODY);
+        when(httpHeader.map()).thenReturn(Map.of("set-cookie", List.of(SESSION_COOKIE)), Map.of());
+        var firstSession = new LoginSession();
+        var secondSession = new LoginSession();
+
+        loginAdapter.getLoginStatusAsync(firstSession, GET_LINK).join();
+        loginAdapter.getLoginStatusAsync(secondSession, GET_LINK).join();
+
+        assertThat(firstSession.getCookie()).contains(SESSION_COOKIE);
+        assertThat(secondSession.getCookie()).isEmpty();
+    }
+
+    @Test
+    public void allMethods_shouldRecordEndpointMetrics_andStatusTransitions() {
+        mockResponseBody(LOGIN_BODY);
+        var session = new LoginSession();
+
+        loginAdapter.initiateLoginAsync(session, USER_ID, LOGIN_METHOD).join();
+        loginAdapter.getLoginStatusAsync(session, GET_LINK).join();
+        loginAdapter.getLoginStatusAsync(session, GET_LINK).join();
+
+        assertThat(metrics.endpoint(AdapterOperation.INITIATE).getRequests()).isEqualTo(1);
+        assertThat(metrics.endpoint(AdapterOperation.STATUS))
+                .returns(2L, EndpointMetrics::getRequests)
+                .returns(0L, EndpointMetrics::getInFlight)
+                .returns(Map.of("200", 2L), EndpointMetrics::getStatusCodes);
+        assertThat(metrics.getStatusTransitions()).isEqualTo(Map.of("NEW->CLIENT_NOT_STARTED", 1L));
+    }
+
+    @Test
+    public void getLoginStatus_shouldCountCookieRefresh_onlyWhenCookieChanges() {
+        mockResponseBody(LOGIN_BODY);
+        when(httpHeader.map()).thenReturn(Map.of("set-cookie", List.of(SESSION_COOKIE)));
+        var session = new LoginSession();
 
-        loginAdapter.initiateLogin(USER_ID, LOGIN_METHOD);
+        loginAdapter.getLoginStatusAsync(session, GET_LINK).join();
+        loginAdapter.getLoginStatusAsync(session, GET_LINK).join();
 
-        verifyRequest(LOGIN_METHOD.getLocation(), Optional.of(REQUEST_BODY));
+        assertThat(metrics.getCookieRefreshes()).isEqualTo(1);
+    }
+
+    @Test
+    public void getLoginStatus_shouldRecordFailure_whenNoResponseIsReceived() {
+        when(httpClient.sendAsync(any(), any())).thenReturn(CompletableFuture.failedFuture(new IOException("Connection reset")));
+        lenient().when(httpResponse.statusCode()).thenReturn(200);
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(new LoginSession(), GET_LINK).join())
+                .hasCauseInstanceOf(IOException.class);
+        assertThat(metrics.endpoint(AdapterOperation.STATUS))
+                .returns(1L, EndpointMetrics::getFailures)
+                .returns(0L, EndpointMetrics::getInFlight);
+    }
+
+    @Test
+    public void allMethods_shouldSetRequestTimeout_ofOperation() {
+        var clientConfig = HttpClientConfig.builder()
+                .requestTimeouts(Map.of(AdapterOperation.STATUS, Duration.ofSeconds(2), AdapterOperation.INITIATE, Duration.ofSeconds(7)))
+                .build();
+        loginAdapter = new SwedbankLoginAdapter(httpClient, clientConfig, SwedbankLoginAdapter.DEFAULT_BASE_PATH, metrics);
+        mockResponseBody(LOGIN_BODY);
+
+        loginAdapter.getLoginStatusAsync(new LoginSession(), GET_LINK).join();
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, LOGIN_METHOD).join();
+
+        verify(httpClient, times(2)).sendAsync(requestCaptor.capture(), any());
+        assertThat(requestCaptor.getAllValues().get(0).timeout()).contains(Duration.ofSeconds(2));
+        assertThat(requestCaptor.getAllValues().get(1).timeout()).contains(Duration.ofSeconds(7));
+    }
+
+    @Test
+    public void getLoginStatus_shouldCancelHttpExchange_whenStatusIsCancelled() {
+        var exchange = new CompletableFuture<HttpResponse<byte[]>>();
+        when(httpClient.sendAsync(any(), any())).thenReturn((CompletableFuture) exchange);
+        lenient().when(httpResponse.statusCode()).thenReturn(200);
+
+        loginAdapter.getLoginStatusAsync(new LoginSession(), GET_LINK).cancel(true);
+
+        assertThat(exchange).isCancelled();
     }
 
     @ParameterizedTest
     @MethodSource("provideAdapterCalls")
-    public void allMethods_shouldMapNot2xxStatusCode_toException(ThrowableConsumer<SwedbankLoginAdapter> methodConsumer) {
+    public void allMethods_shouldMapNot2xxStatusCode_toException(Function<SwedbankLoginAdapter, CompletableFuture<?>> adapterCall) {
         when(httpResponse.statusCode()).thenReturn(400);
-        lenient().when(gson.toJson(any(MobileBankIDRequest.class))).thenReturn(REQUEST_BODY);
-        when(gson.fromJson(any(String.class), eq(HttpException.class))).thenReturn(httpException);
-        when(httpException.getErrorMessages()).thenReturn(errorMessages);
-        when(errorMessages.getFields()).thenReturn(List.of(fieldError1, fieldError2));
-        var firstError = "Bad error";
-        var secondError = "Worse error";
-        when(fieldError1.getMessage()).thenReturn(firstError);
-        when(fieldError2.getMessage()).thenReturn(secondError);
+        mockResponseBody(ERROR_BODY);
 
-        assertThatThrownBy(() -> methodConsumer.accept(loginAdapter))
-                .isInstanceOf(IllegalStateException.class)
-                .hasMessage("%s, %s".formatted(firstError, secondError));
+        assertThatThrownBy(() -> adapterCall.apply(loginAdapter).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("Bad error, Worse error");
     }
 
-    private LoginInitiationResponse getMockedLoginInitiationResponse() {
-        var loginInitiationResponse = Mockito.mock(LoginInitiationResponse.class);
-        when(gson.fromJson(RESPONSE_BODY, LoginInitiationResponse.class)).thenReturn(loginInitiationResponse);
-        return loginInitiationResponse;
+    @Test
+    public void getLoginStatus_shouldFailWithServerError_whenErrorBodyHasOtherFormat() {
+        when(httpResponse.statusCode()).thenReturn(503);
+        mockResponseBody("{\"message\":\"Service Unavailable\"}");
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(new LoginSession(), GET_LINK).join())
+                .hasCauseInstanceOf(BankApiException.class)
+                .cause()
+                .hasMessage("Bank API responded with status 503")
+                .satisfies(error -> assertThat(((BankApiException) error).isServerError()).isTrue());
     }
 
-    private void mockForLoginInitiation() {
-        when(gson.toJson(any(MobileBankIDRequest.class))).thenReturn(REQUEST_BODY);
+    @Test
+    public void getLoginStatus_shouldFailWithClientError_whenErrorBodyIsNotJson() {
+        when(httpResponse.statusCode()).thenReturn(400);
+        mockResponseBody("<html><body>Bad Request</body></html>");
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(new LoginSession(), GET_LINK).join())
+                .hasCauseInstanceOf(BankApiException.class)
+                .cause()
+                .hasMessage("Bank API responded with status 400")
+                .satisfies(error -> assertThat(((BankApiException) error).getStatusCode()).isEqualTo(400));
     }
 
-    private void mockForGetAllLoginMethods() {
-        when(gson.fromJson(any(String.class), eq(AuthenticationMethodsResponse.class))).thenReturn(methodsResponse);
+    private void mockResponseBody(String body) {
+        when(httpResponse.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
     }
 
-    private void verifyRequest(Link link) throws IOException, InterruptedException {
+    private void verifyRequest(Link link) {
         verifyRequest(link, Optional.empty());
     }
 
-    private void verifyRequest(Link link, Optional<String> requestBody) throws IOException, InterruptedException {
-        verify(httpClient).send(requestCaptor.capture(), eq(HttpResponse.BodyHandlers.ofString()));
+    private void verifyRequest(Link link, Optional<String> requestBody) {
+        verify(httpClient).sendAsync(requestCaptor.capture(), eq(HttpResponse.BodyHandlers.ofByteArray()));
         assertThat(requestCaptor.getValue())
                 .returns(link.getMethod(), HttpRequest::method)
                 .returns("online.swedbank.se", request -> request.uri().getHost())
@@ -197,11 +314,7 @@ public class SwedbankLoginAdapterTest {
         );
     }
 
-    private final static ThrowableConsumer<SwedbankLoginAdapter> getAllMethods = SwedbankLoginAdapter::getAllLoginMethods;
-    private final static ThrowableConsumer<SwedbankLoginAdapter> initiateLogin = (loginAdapter) -> loginAdapter.initiateLogin(USER_ID, LOGIN_METHOD);
-    private final static ThrowableConsumer<SwedbankLoginAdapter> getLoginStatus = (loginAdapter) -> loginAdapter.getLoginStatus(GET_LINK);
-
-    interface ThrowableConsumer<T> {
-        void accept(T t) throws Exception;
-    }
+    private final static Function<SwedbankLoginAdapter, CompletableFuture<?>> getAllMethods = SwedbankLoginAdapter::getAllLoginMethodsAsync;
+    private final static Function<SwedbankLoginAdapter, CompletableFuture<?>> initiateLogin = (loginAdapter) -> loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, LOGIN_METHOD);
+    private final static Function<SwedbankLoginAdapter, CompletableFuture<?>> getLoginStatus = (loginAdapter) -> loginAdapter.getLoginStatusAsync(new LoginSession(), GET_LINK);
 }
@@ -0,0 +1,66 @@
+package com.company;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(-5 * SECOND);
+    private final TokenBucket bucket = new TokenBucket(10, 3, now::get);
+
+    @Test
+    public void tryAcquire_shouldAllowBurst_thenRejectUntilPermitIsDue() {
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        now.addAndGet(SECOND / 10);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void tryAcquire_shouldNotAccumulateMoreThanBurst_whenIdle() {
+        now.addAndGet(60 * SECOND);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void reserve_shouldSpacePermitsEvenly_afterBurst() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.reserve(SECOND)).isZero();
+        }
+
+        assertThat(bucket.reserve(SECOND)).isEqualTo(SECOND / 10);
+        assertThat(bucket.reserve(SECOND)).isEqualTo(2 * SECOND / 10);
+    }
+
+    @Test
+    public void reserve_shouldNotTakePermit_whenWaitExceedsMaximum() {
+        for (int i = 0; i < 3; i++) {
+            bucket.reserve(0);
+        }
+
+        assertThat(bucket.reserve(SECOND / 20)).isEqualTo(-1);
+        assertThat(bucket.reserve(SECOND / 10)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    public void constructor_shouldRejectNonPositiveRate() {
+        assertThatThrownBy(() -> new TokenBucket(0, 1))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,79 @@
+package com.company.beans.dto;
+
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.ErrorMessages;
+import com.company.beans.FieldError;
+import com.company.beans.Link;
+import com.company.beans.Links;
+import com.company.beans.LoginStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonCodecsTest {
+
+    @Test
+    public void decode_shouldReadAuthenticationMethods_andSkipUnknownFields() {
+        var body = """
+                {"authenticationMethods":[
+                  {"message":"Mobile BankID","code":"BANKID_MOBILE","location":{"method":"POST","uri":"/mobile","rel":"x"},"order":1},
+                  {"message":"New method","code":"NOT_YET_KNOWN","extra":{"nested":[1,2,{"a":null}]}}
+                ],"version":3}""";
+
+        var response = JsonCodecs.decode(bytes(body), JsonCodecs.AUTHENTICATION_METHODS_RESPONSE);
+
+        assertThat(response.getAuthenticationMethods()).containsExactly(
+                AuthenticationMethod.builder().message("Mobile BankID").code(AuthenticationCode.BANKID_MOBILE).location(new Link("POST", "/mobile")).build(),
+                AuthenticationMethod.builder().message("New method").build());
+    }
+
+    @Test
+    public void decode_shouldReadLoginInitiationResponse() {
+        var body = """
+                {"status":"OUTSTANDING_TRANSACTION","autoStartToken":"token","links":{"next":{"method":"GET","uri":"/status"}}}""";
+
+        var response = JsonCodecs.decode(bytes(body), JsonCodecs.LOGIN_INITIATION_RESPONSE);
+
+        assertThat(response).isEqualTo(new LoginInitiationResponse(LoginStatus.OUTSTANDING_TRANSACTION, new Links(new Link("GET", "/status"))));
+    }
+
+    @Test
+    public void decode_shouldReadNullValues() {
+        var response = JsonCodecs.decode(bytes("{\"status\":null,\"links\":null}"), JsonCodecs.LOGIN_INITIATION_RESPONSE);
+
+        assertThat(response).isEqualTo(new LoginInitiationResponse(null, null));
+    }
+
+    @Test
+    public void decode_shouldReadHttpException() {
+        var body = """
+                {"errorMessages":{"general":[],"fields":[{"field":"userId","message":"Bad error"}]}}""";
+
+        var response = JsonCodecs.decode(bytes(body), JsonCodecs.HTTP_EXCEPTION);
+
+        assertThat(response).isEqualTo(new HttpException(new ErrorMessages(List.of(new FieldError("Bad error")))));
+    }
+
+    @Test
+    public void decode_shouldFail_whenBodyIsMalformed() {
+        assertThatThrownBy(() -> JsonCodecs.decode(bytes("<html>"), JsonCodecs.LOGIN_INITIATION_RESPONSE))
+                .isInstanceOf(UncheckedIOException.class);
+    }
+
+    @Test
+    public void encode_shouldWriteMobileBankIdRequest() {
+        var body = JsonCodecs.encode(MobileBankIDRequest.builder().userId("191212121212").build());
+
+        assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo("{\"bankIdOnSameDevice\":false,\"userId\":\"191212121212\"}");
+    }
+
+    private static byte[] bytes(String body) {
+        return body.getBytes(StandardCharsets.UTF_8);
+    }
+}
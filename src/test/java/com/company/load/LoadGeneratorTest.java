@@ -0,0 +1,95 @@
+package com.company.load;
+
+import com.company.BatchLoginSummary;
+import com.company.LoginAdapter;
+import com.company.beans.AuthenticationCode;
+import com.company.beans.AuthenticationMethod;
+import com.company.beans.AuthenticationMethodCatalog;
+import com.company.beans.Link;
+import com.company.beans.Links;
+import com.company.beans.LoginStatus;
+import com.company.beans.dto.LoginInitiationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LoadGeneratorTest {
+
+    private static final AuthenticationMethod BANK_ID = AuthenticationMethod.builder().code(AuthenticationCode.BANKID_MOBILE).build();
+    private static final LoginInitiationResponse INITIATED_LOGIN = new LoginInitiationResponse(LoginStatus.CLIENT_NOT_STARTED, new Links(new Link("GET", "/next")));
+
+    @Mock
+    private LoginAdapter loginAdapter;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(loginAdapter.getAllLoginMethods()).thenReturn(AuthenticationMethodCatalog.of(List.of(BANK_ID)));
+    }
+
+    @Test
+    public void run_shouldStartLogins_atConfiguredArrivalRate() throws Exception {
+        when(loginAdapter.initiateLogin(any(), any(), any())).thenReturn(INITIATED_LOGIN);
+        when(loginAdapter.getLoginStatus(any(), any())).thenReturn(LoginStatus.OUTSTANDING_TRANSACTION, LoginStatus.COMPLETE);
+
+        var report = new LoadGenerator(loginAdapter, config(100, Duration.ofMillis(200))).run();
+
+        assertThat(report.getLatencies(LoadReport.INITIATE).getTotalCount()).isEqualTo(20);
+        assertThat(report.getOutcomes()).isEqualTo(Map.of(LoginStatus.COMPLETE.toString(), 20L));
+        assertThat(report.getOutcomeLatencies(LoginStatus.COMPLETE.toString()).getValueAtPercentile(50))
+                .isGreaterThan(config(100, Duration.ofMillis(200)).getPollInterval().toNanos());
+    }
+
+    @Test
+    public void run_shouldReportTimedOutAndFailedLogins() throws Exception {
+        when(loginAdapter.initiateLogin(any(), any(), any())).thenReturn(INITIATED_LOGIN).thenThrow(new IllegalStateException());
+        lenient().when(loginAdapter.getLoginStatus(any(), any())).thenReturn(LoginStatus.CLIENT_NOT_STARTED);
+
+        var report = new LoadGenerator(loginAdapter, config(100, Duration.ofMillis(20))).run();
+
+        assertThat(report.getOutcomes()).isEqualTo(Map.of(BatchLoginSummary.TIMED_OUT, 1L, BatchLoginSummary.FAILED, 1L));
+        assertThat(report.getLatencies(LoadReport.STATUS).getTotalCount()).isEqualTo(3);
+        assertThat(report.getOutcomeLatencies(BatchLoginSummary.FAILED).getTotalCount()).isEqualTo(1);
+        assertThat(report.getOutcomeLatencies(BatchLoginSummary.TIMED_OUT).getMaxValue())
+                .isGreaterThan(report.getOutcomeLatencies(BatchLoginSummary.FAILED).getMaxValue());
+    }
+
+    @Test
+    public void run_shouldIncludeQueueingDelay_whenUpstreamFallsBehind() throws Exception {
+        var serviceTime = Duration.ofMillis(20);
+        when(loginAdapter.initiateLogin(any(), any(), any())).thenAnswer(invocation -> {
+            synchronized (this) {
+                Thread.sleep(serviceTime);
+            }
+            return new LoginInitiationResponse(LoginStatus.COMPLETE, null);
+        });
+
+        var report = new LoadGenerator(loginAdapter, config(100, Duration.ofMillis(200))).run();
+
+        assertThat(report.getLatencies(LoadReport.INITIATE).getMaxValue())
+                .isGreaterThan(serviceTime.multipliedBy(5).toNanos());
+        assertThat(report.getLatencies(LoadReport.INITIATE).getValueAtPercentile(50))
+                .isGreaterThan(TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    private static LoadGeneratorConfig config(double arrivalRate, Duration duration) {
+        return LoadGeneratorConfig.builder()
+                .arrivalRate(arrivalRate)
+                .duration(duration)
+                .pollInterval(Duration.ofMillis(1))
+                .maxPolls(3)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.company.metrics;
+
+import com.company.beans.AdapterOperation;
+import com.company.beans.LoginStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoginMetricsTest {
+
+    private MBeanServer mBeanServer;
+    private LoginMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        mBeanServer = MBeanServerFactory.newMBeanServer();
+        metrics = new LoginMetrics();
+    }
+
+    @Test
+    public void statusTransition_shouldCountTransitions_fromFreshLoginAndPreviousStatus() {
+        metrics.statusTransition(null, LoginStatus.CLIENT_NOT_STARTED);
+        metrics.statusTransition(null, LoginStatus.CLIENT_NOT_STARTED);
+        metrics.statusTransition(LoginStatus.CLIENT_NOT_STARTED, LoginStatus.COMPLETE);
+
+        assertThat(metrics.getStatusTransitions())
+                .containsEntry("NEW->CLIENT_NOT_STARTED", 2L)
+                .containsEntry("CLIENT_NOT_STARTED->COMPLETE", 1L)
+                .hasSize(2);
+    }
+
+    @Test
+    public void endpoint_shouldTrackInFlightRequests_andLatencies() {
+        var endpoint = metrics.endpoint(AdapterOperation.STATUS);
+
+        var first = endpoint.started();
+        var second = endpoint.started();
+        assertThat(endpoint.getInFlight()).isEqualTo(2);
+
+        endpoint.completed(first, 200);
+        endpoint.failed(second);
+
+        assertThat(endpoint.getInFlight()).isZero();
+        assertThat(endpoint.getRequests()).isEqualTo(2);
+        assertThat(endpoint.getFailures()).isEqualTo(1);
+        assertThat(endpoint.getLatencyMaxMillis()).isGreaterThan(0).isGreaterThanOrEqualTo(endpoint.getLatencyP50Millis());
+    }
+
+    @Test
+    public void register_shouldPublishMetricsAsMBeans() throws Exception {
+        metrics.endpoint(AdapterOperation.INITIATE).completed(metrics.endpoint(AdapterOperation.INITIATE).started(), 503);
+        metrics.cookieRefreshed();
+
+        metrics.register(mBeanServer);
+
+        assertThat(mBeanServer.getAttribute(new ObjectName("com.company:type=LoginMetrics"), "CookieRefreshes")).isEqualTo(1L);
+        var statusCodes = (TabularData) mBeanServer.getAttribute(new ObjectName("com.company:type=EndpointMetrics,endpoint=initiate"), "StatusCodes");
+        assertThat(statusCodes.get(new Object[]{"503"}).get("value")).isEqualTo(1L);
+        assertThat(mBeanServer.isRegistered(new ObjectName("com.company:type=EndpointMetrics,endpoint=identification"))).isTrue();
+        assertThat(mBeanServer.isRegistered(new ObjectName("com.company:type=EndpointMetrics,endpoint=status"))).isTrue();
+    }
+
+    @Test
+    public void register_shouldReplaceEarlierRegistration() throws Exception {
+        new LoginMetrics().register(mBeanServer);
+        metrics.cookieRefreshed();
+
+        metrics.register(mBeanServer);
+
+        assertThat(mBeanServer.getAttribute(new ObjectName("com.company:type=LoginMetrics"), "CookieRefreshes")).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,119 @@
+package com.company.simulator;
+
+import com.company.LoginSession;
+import com.company.SwedbankLoginAdapter;
+import com.company.beans.AuthenticationCode;
+import com.company.beans.LoginStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SwedbankApiSimulatorTest {
+
+    private static final String USER_ID = "191212121212";
+    private static final SimulatorConfig CONFIG = SimulatorConfig.builder()
+            .latency(LatencyDistribution.fixed(Duration.ZERO))
+            .clientNotStartedPolls(1)
+            .outstandingTransactionPolls(2)
+            .build();
+
+    private SwedbankApiSimulator simulator;
+
+    @AfterEach
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Test
+    public void shouldServeLoginMethods() throws Exception {
+        var loginAdapter = startWith(CONFIG);
+
+        var methods = loginAdapter.getAllLoginMethodsAsync().join();
+
+        assertThat(methods.find(AuthenticationCode.BANKID_MOBILE)).isPresent();
+    }
+
+    @Test
+    public void shouldProgressLogin_untilComplete() throws Exception {
+        var loginAdapter = startWith(CONFIG);
+        var method = loginAdapter.getAllLoginMethodsAsync().join().get(AuthenticationCode.BANKID_MOBILE);
+        var session = new LoginSession();
+
+        var initiatedLogin = loginAdapter.initiateLoginAsync(session, USER_ID, method).join();
+        var statuses = new ArrayList<LoginStatus>();
+        for (int c = 0; c < 4; c++) {
+            statuses.add(loginAdapter.getLoginStatusAsync(session, initiatedLogin.getLinks().getNext()).join());
+        }
+
+        assertThat(initiatedLogin.getStatus()).isEqualTo(LoginStatus.CLIENT_NOT_STARTED);
+        assertThat(session.getCookie()).hasValueSatisfying(cookie -> assertThat(cookie).startsWith("JSESSIONID="));
+        assertThat(statuses).containsExactly(LoginStatus.CLIENT_NOT_STARTED, LoginStatus.OUTSTANDING_TRANSACTION,
+                LoginStatus.OUTSTANDING_TRANSACTION, LoginStatus.COMPLETE);
+        assertThat(simulator.getPendingLogins()).isZero();
+    }
+
+    @Test
+    public void shouldCancelPreviousLogin_whenSameUserInitiatesAgain() throws Exception {
+        var loginAdapter = startWith(CONFIG);
+        var method = loginAdapter.getAllLoginMethodsAsync().join().get(AuthenticationCode.BANKID_MOBILE);
+        var firstSession = new LoginSession();
+        var first = loginAdapter.initiateLoginAsync(firstSession, USER_ID, method).join();
+
+        loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, method).join();
+
+        assertThat(loginAdapter.getLoginStatusAsync(firstSession, first.getLinks().getNext()).join())
+                .isEqualTo(LoginStatus.CANCELLED_BY_NEW_INIT_AUTHENTICATION);
+    }
+
+    @Test
+    public void shouldForgetLogin_thatIsNotPolledWithinTtl() throws Exception {
+        var loginAdapter = startWith(SimulatorConfig.builder()
+                .latency(LatencyDistribution.fixed(Duration.ZERO))
+                .loginTtl(Duration.ofMillis(500))
+                .build());
+        var method = loginAdapter.getAllLoginMethodsAsync().join().get(AuthenticationCode.BANKID_MOBILE);
+        var session = new LoginSession();
+        var initiatedLogin = loginAdapter.initiateLoginAsync(session, USER_ID, method).join();
+        assertThat(simulator.getPendingLogins()).isEqualTo(1);
+
+        for (int i = 0; i < 300 && simulator.getPendingLogins() > 0; i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(simulator.getPendingLogins()).isZero();
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(session, initiatedLogin.getLinks().getNext()).join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("Session is not valid");
+    }
+
+    @Test
+    public void shouldRejectStatusCheck_withoutSession() throws Exception {
+        var loginAdapter = startWith(CONFIG);
+        var method = loginAdapter.getAllLoginMethodsAsync().join().get(AuthenticationCode.BANKID_MOBILE);
+        var initiatedLogin = loginAdapter.initiateLoginAsync(new LoginSession(), USER_ID, method).join();
+
+        assertThatThrownBy(() -> loginAdapter.getLoginStatusAsync(new LoginSession(), initiatedLogin.getLinks().getNext()).join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("Session is not valid");
+    }
+
+    @Test
+    public void shouldFailRequests_accordingToErrorRate() throws Exception {
+        var loginAdapter = startWith(SimulatorConfig.builder().latency(LatencyDistribution.fixed(Duration.ZERO)).errorRate(1.0).build());
+
+        assertThatThrownBy(() -> loginAdapter.getAllLoginMethodsAsync().join())
+                .isInstanceOf(CompletionException.class)
+                .hasRootCauseMessage("Service is temporarily unavailable");
+    }
+
+    private SwedbankLoginAdapter startWith(SimulatorConfig config) throws Exception {
+        simulator = SwedbankApiSimulator.start(0, config);
+        return new SwedbankLoginAdapter(simulator.getBasePath());
+    }
+}
@@ -0,0 +1,93 @@
+package com.company.tracing;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TraceRecorderTest {
+
+    @Test
+    public void startTrace_shouldReturnNoopTrace_whenSampledOut() {
+        var traceRecorder = new TraceRecorder(10, 0);
+
+        var trace = traceRecorder.startTrace();
+        trace.startSpan("login").close();
+        trace.recordSpan("wait", 1, 2);
+
+        assertThat(trace.isSampled()).isFalse();
+        assertThat(traceRecorder.getSpans()).isEmpty();
+    }
+
+    @Test
+    public void startSpan_shouldRecordSpan_whenClosed() {
+        var traceRecorder = new TraceRecorder(10, 1);
+        var trace = traceRecorder.startTrace();
+
+        try (var span = trace.startSpan("login")) {
+            span.detail("COMPLETE");
+        }
+
+        assertThat(traceRecorder.getSpans()).singleElement()
+                .returns("login", Span::name)
+                .returns("COMPLETE", Span::detail)
+                .satisfies(span -> assertThat(span.durationNanos()).isNotNegative());
+    }
+
+    @Test
+    public void inSpan_shouldRecordSpan_whenStageFails() {
+        var traceRecorder = new TraceRecorder(10, 1);
+        var trace = traceRecorder.startTrace();
+
+        assertThatThrownBy(() -> trace.inSpan("initiate login", () -> {
+            throw new IllegalStateException("Service unavailable");
+        })).hasMessage("Service unavailable");
+
+        assertThat(traceRecorder.getSpans()).extracting(Span::name).containsExactly("initiate login");
+    }
+
+    @Test
+    public void record_shouldKeepOnlyLatestSpans_whenBufferIsFull() {
+        var traceRecorder = new TraceRecorder(2, 1);
+        var trace = traceRecorder.startTrace();
+
+        trace.recordSpan("first", 1, 2);
+        trace.recordSpan("second", 2, 3);
+        trace.recordSpan("third", 3, 4);
+
+        assertThat(traceRecorder.getSpans()).extracting(Span::name).containsExactly("second", "third");
+    }
+
+    @Test
+    public void exportChromeTrace_shouldWriteCompleteEvents_perLogin() throws Exception {
+        var traceRecorder = new TraceRecorder(10, 1);
+        var first = traceRecorder.startTrace();
+        var second = traceRecorder.startTrace();
+        first.recordSpan("initiate login", System.nanoTime(), System.nanoTime() + 2_000);
+        second.recordSpan("wait", System.nanoTime(), System.nanoTime() + 1_000);
+        var writer = new StringWriter();
+
+        traceRecorder.exportChromeTrace(writer);
+
+        var events = new JsonParser().parse(writer.toString()).getAsJsonObject().getAsJsonArray("traceEvents");
+        assertThat(events).hasSize(4);
+        var metadata = events.get(0).getAsJsonObject();
+        assertThat(metadata.get("ph").getAsString()).isEqualTo("M");
+        assertThat(metadata.getAsJsonObject("args").get("name").getAsString()).isEqualTo("login 1");
+        JsonObject span = events.get(2).getAsJsonObject();
+        assertThat(span.get("name").getAsString()).isEqualTo("initiate login");
+        assertThat(span.get("ph").getAsString()).isEqualTo("X");
+        assertThat(span.get("tid").getAsLong()).isEqualTo(1);
+        assertThat(span.get("dur").getAsDouble()).isGreaterThanOrEqualTo(2.0);
+    }
+
+    @Test
+    public void constructor_shouldRejectSampleRateAboveOne() {
+        assertThatThrownBy(() -> new TraceRecorder(10, 1.5))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}